@@ -0,0 +1,136 @@
+/*
+ * Name: Xiaotong Zuo
+ * PID: A15445495
+ */
+
+import java.io.*;
+import java.nio.ByteBuffer;
+
+/**
+ * Input stream decompressing the output of AdaptiveHuffmanOutputStream. It
+ * mirrors the writer's model, rebuilding the tree after every segment, and
+ * never reads past the segment it is decoding.
+ */
+public class AdaptiveHuffmanInputStream extends InputStream {
+
+    private DataInputStream in; // the underlying stream
+    private int maxSegmentSize; // the largest number of symbols per segment
+    private AdaptiveHuffmanModel model; // the model coding the next segment
+    private byte[] segment; // symbols of the current segment
+    private byte[] payload; // encoded bytes of the current segment
+    private int nelems; // number of symbols in the current segment
+    private int pos; // position of the next symbol to return
+    private boolean done; // whether the end of stream was read
+
+    /**
+     * Initializes a stream reading from the given stream, written with at
+     * most the default segment size
+     *
+     * @param in the underlying stream
+     */
+    public AdaptiveHuffmanInputStream(InputStream in) {
+        this(in, AdaptiveHuffmanOutputStream.DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Initializes a stream reading from the given stream. Segments longer
+     * than maxSegmentSize are rejected as malformed, so a corrupt stream
+     * cannot force a large allocation.
+     *
+     * @param in             the underlying stream
+     * @param maxSegmentSize the segment size the stream was written with
+     * @throws IllegalArgumentException if maxSegmentSize is less than one
+     */
+    public AdaptiveHuffmanInputStream(InputStream in, int maxSegmentSize)
+            throws IllegalArgumentException {
+        if (maxSegmentSize < 1) {throw new IllegalArgumentException();}
+        this.in = new DataInputStream(in);
+        this.maxSegmentSize = maxSegmentSize;
+        this.model = new AdaptiveHuffmanModel();
+        this.segment = new byte[0];
+        this.payload = new byte[0];
+    }
+
+    /**
+     * Reads the next byte
+     *
+     * @return the next byte, or -1 at the end of the stream
+     * @throws IOException if reading fails or the stream is malformed
+     */
+    @Override
+    public int read() throws IOException {
+        if (pos == nelems && !readSegment()) {return -1;}
+        return segment[pos++] & 0xff;
+    }
+
+    /**
+     * Reads the next bytes into the given array
+     *
+     * @param b   the destination array
+     * @param off the first index to fill
+     * @param len the maximum number of bytes to read
+     * @return the number of bytes read, or -1 at the end of the stream
+     * @throws IOException if reading fails or the stream is malformed
+     */
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {return 0;}
+        if (pos == nelems && !readSegment()) {return -1;}
+        int n = Math.min(len, nelems - pos);
+        System.arraycopy(segment, pos, b, off, n);
+        pos += n;
+        return n;
+    }
+
+    /**
+     * Returns the number of bytes left in the current segment
+     *
+     * @return the number of bytes that can be read without blocking
+     */
+    @Override
+    public int available() {
+        return nelems - pos;
+    }
+
+    /**
+     * Close the underlying stream
+     *
+     * @throws IOException if closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Helper method that decodes the next segment and updates the model
+     *
+     * @return false at the end of the stream
+     * @throws IOException if reading fails or the stream is malformed
+     */
+    private boolean readSegment() throws IOException {
+        if (done) {return false;}
+        int count = in.readInt();
+        if (count == 0) {
+            done = true;
+            return false;
+        }
+        int payloadLen = in.readInt();
+        // no code is longer than DEFAULT_MAX_CODE_LEN bits
+        long maxPayloadLen = ((long) count * HCTree.DEFAULT_MAX_CODE_LEN + 7) / 8;
+        if (count < 0 || count > maxSegmentSize || payloadLen < 0 || payloadLen > maxPayloadLen) {
+            throw new IOException("Malformed segment");
+        }
+        if (payload.length < payloadLen) {payload = new byte[payloadLen];}
+        in.readFully(payload, 0, payloadLen);
+        if (segment.length < count) {segment = new byte[count];}
+        HCTree tree = model.getTree();
+        BitInputStream bitIn = new BitInputStream(ByteBuffer.wrap(payload, 0, payloadLen));
+        for (int i = 0; i < count; i++) {segment[i] = tree.decode(bitIn);}
+        model.update(segment, count);
+        nelems = count;
+        pos = 0;
+        return true;
+    }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * Name: Xiaotong Zuo
+ * PID: A15445495
+ */
+
+/**
+ * The model shared by AdaptiveHuffmanOutputStream and
+ * AdaptiveHuffmanInputStream. It starts with every symbol counted once, and
+ * both sides feed it the same segments in the same order, so their trees are
+ * rebuilt identically after every segment. Counts are halved whenever their
+ * total grows past MAX_TOTAL, so the model follows changes in the input.
+ */
+class AdaptiveHuffmanModel {
+    // alphabet size of extended ASCII
+    private static final int NUM_CHARS = 256;
+    // counts are halved once their total grows past this
+    private static final int MAX_TOTAL = 1 << 20;
+
+    private int[] counts; // running count of each symbol, at least one
+    private int total; // sum of counts
+    private HCTree tree; // the tree built from counts
+
+    /**
+     * Initializes a model where every symbol has been seen once
+     */
+    AdaptiveHuffmanModel() {
+        counts = new int[NUM_CHARS];
+        for (int i = 0; i < NUM_CHARS; i++) {counts[i] = 1;}
+        total = NUM_CHARS;
+        rebuild();
+    }
+
+    /**
+     * Returns the tree coding the next segment
+     *
+     * @return the current tree
+     */
+    HCTree getTree() {
+        return tree;
+    }
+
+    /**
+     * Add the symbols of a segment to the counts and rebuild the tree
+     *
+     * @param segment the symbols of the segment
+     * @param len     the number of symbols in the segment
+     */
+    void update(byte[] segment, int len) {
+        int[] freq = FrequencyCounter.count(segment, 0, len);
+        for (int i = 0; i < NUM_CHARS; i++) {counts[i] += freq[i];}
+        total += len;
+        while (total > MAX_TOTAL) {
+            total = 0;
+            for (int i = 0; i < NUM_CHARS; i++) {
+                counts[i] = (counts[i] + 1) / 2;
+                total += counts[i];
+            }
+        }
+        rebuild();
+    }
+
+    /**
+     * Helper method that rebuilds the tree from the counts
+     */
+    private void rebuild() {
+        tree = new HCTree();
+        tree.buildTree(counts, HCTree.DEFAULT_MAX_CODE_LEN);
+    }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Name: Xiaotong Zuo
+ * PID: A15445495
+ */
+
+import java.io.*;
+
+/**
+ * Output stream compressing in a single pass with an adaptive Huffman code.
+ * Bytes are collected into segments; each segment is encoded with the tree
+ * built from the bytes of all earlier segments, and the tree is rebuilt
+ * after it. Memory stays bounded by the segment size, and flush pushes out
+ * the current partial segment so the reader can decode it right away.
+ *
+ * Stream format: per segment, the number of symbols and the number of payload
+ * bytes as ints, then the payload; a segment of 0 symbols ends the stream.
+ */
+public class AdaptiveHuffmanOutputStream extends OutputStream {
+    // default number of symbols per segment
+    public static final int DEFAULT_SEGMENT_SIZE = 1 << 14;
+    // largest buffer of the bit writer
+    private static final int MAX_BIT_BUFFER_SIZE = 1 << 16;
+
+    private DataOutputStream out; // the underlying stream
+    private AdaptiveHuffmanModel model; // the model coding the next segment
+    private byte[] segment; // symbols of the current segment
+    private int nelems; // number of symbols in the current segment
+    private ByteArrayOutputStream payload; // reused buffer for encoded segments
+    private BitOutputStream bitOut; // reused writer into payload
+    private boolean closed; // whether the end of stream was written
+
+    /**
+     * Initializes a stream with the default segment size
+     *
+     * @param out the underlying stream
+     */
+    public AdaptiveHuffmanOutputStream(OutputStream out) {
+        this(out, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Initializes a stream with a given segment size. Smaller segments adapt
+     * faster, larger segments spend less time rebuilding trees.
+     *
+     * @param out         the underlying stream
+     * @param segmentSize the number of symbols per segment
+     * @throws IllegalArgumentException if segmentSize is less than one
+     */
+    public AdaptiveHuffmanOutputStream(OutputStream out, int segmentSize)
+            throws IllegalArgumentException {
+        if (segmentSize < 1) {throw new IllegalArgumentException();}
+        this.out = new DataOutputStream(out);
+        this.model = new AdaptiveHuffmanModel();
+        this.segment = new byte[segmentSize];
+        this.payload = new ByteArrayOutputStream();
+        // a segment takes about a byte per symbol, so a smaller buffer
+        // would only be flushed more often
+        this.bitOut = new BitOutputStream(payload,
+                Math.max(8, Math.min(segmentSize, MAX_BIT_BUFFER_SIZE)));
+    }
+
+    /**
+     * Writes a byte
+     *
+     * @param b the byte to write
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void write(int b) throws IOException {
+        if (closed) {throw new IOException("Stream closed");}
+        segment[nelems++] = (byte) b;
+        if (nelems == segment.length) {writeSegment();}
+    }
+
+    /**
+     * Writes the given bytes
+     *
+     * @param b   the source array
+     * @param off the first index to write
+     * @param len the number of bytes to write
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (closed) {throw new IOException("Stream closed");}
+        while (len > 0) {
+            int n = Math.min(len, segment.length - nelems);
+            System.arraycopy(b, off, segment, nelems, n);
+            nelems += n;
+            off += n;
+            len -= n;
+            if (nelems == segment.length) {writeSegment();}
+        }
+    }
+
+    /**
+     * Encodes the current partial segment and flushes the underlying stream
+     *
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void flush() throws IOException {
+        if (nelems > 0) {writeSegment();}
+        out.flush();
+    }
+
+    /**
+     * Encodes the current partial segment, ends the stream and closes the
+     * underlying stream
+     *
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {return;}
+        if (nelems > 0) {writeSegment();}
+        out.writeInt(0);
+        closed = true;
+        out.close();
+    }
+
+    /**
+     * Helper method that encodes the current segment and updates the model
+     *
+     * @throws IOException if writing fails
+     */
+    private void writeSegment() throws IOException {
+        HCTree tree = model.getTree();
+        payload.reset();
+        for (int i = 0; i < nelems; i++) {tree.encode(segment[i], bitOut);}
+        bitOut.flush();
+        out.writeInt(nelems);
+        out.writeInt(payload.size());
+        payload.writeTo(out);
+        model.update(segment, nelems);
+        nelems = 0;
+    }
+
+}
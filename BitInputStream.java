@@ -0,0 +1,212 @@
+/*
+ * Name: Xiaotong Zuo
+ * PID: A15445495
+ */
+
+import java.io.*;
+import java.nio.ByteBuffer;
+
+/**
+ * Bit-level input stream. The underlying stream or ByteBuffer is read into a
+ * byte buffer in large chunks, and the next bits are kept left-aligned in a
+ * 64-bit window so that several bits can be peeked and skipped at once.
+ */
+public class BitInputStream {
+    // default size of the byte buffer
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+    // the window is refilled whenever it holds fewer bits than this
+    private static final int MIN_WINDOW_BITS = 56;
+
+    private InputStream in; // the underlying stream, null if reading from src
+    private ByteBuffer src; // the underlying buffer, null if reading from in
+    private byte[] buf; // bytes read from the underlying source
+    private int bufPos; // position of the next byte in buf
+    private int bufLimit; // number of bytes in buf
+    private long window; // the next bits, left-aligned
+    private int windowBits; // number of bits in window, including padding
+    private int padBits; // number of zero bits in window past the end of input
+    private boolean eof; // whether the underlying source is exhausted
+
+    /**
+     * Initializes a bit stream reading from the given stream
+     *
+     * @param in the underlying input stream
+     */
+    public BitInputStream(InputStream in) {
+        this(in, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Initializes a bit stream reading from the given stream with a given
+     * buffer size
+     *
+     * @param in         the underlying input stream
+     * @param bufferSize the size of the byte buffer, at least 8
+     * @throws IllegalArgumentException if bufferSize is less than 8
+     */
+    public BitInputStream(InputStream in, int bufferSize) throws IllegalArgumentException {
+        if (bufferSize < 8) {throw new IllegalArgumentException();}
+        this.in = in;
+        this.buf = new byte[bufferSize];
+    }
+
+    /**
+     * Initializes a bit stream reading from the given buffer, starting at its
+     * current position
+     *
+     * @param src the underlying buffer
+     */
+    public BitInputStream(ByteBuffer src) {
+        this.src = src;
+        this.buf = new byte[Math.max(8, Math.min(DEFAULT_BUFFER_SIZE, src.remaining()))];
+    }
+
+    /**
+     * Returns the next bits without consuming them. Bits past the end of input
+     * read as zeros.
+     *
+     * @param n the number of bits to peek, between 0 and 32
+     * @return the next n bits, right-aligned
+     * @throws IOException if the underlying source fails
+     */
+    public int peekBits(int n) throws IOException {
+        if (windowBits < n) {refill();}
+        return n == 0 ? 0 : (int) (window >>> (64 - n));
+    }
+
+    /**
+     * Returns the next bits without consuming them. At least 57 bits are valid
+     * unless the input ends sooner, and bits past the end of input read as
+     * zeros.
+     *
+     * @return the next bits, left-aligned
+     * @throws IOException if the underlying source fails
+     */
+    public long peekWindow() throws IOException {
+        if (windowBits < MIN_WINDOW_BITS) {refill();}
+        return window;
+    }
+
+    /**
+     * Consumes the next bits
+     *
+     * @param n the number of bits to consume, between 0 and 56
+     * @throws IOException if the underlying source fails
+     * @throws EOFException if fewer than n bits are left
+     */
+    public void skipBits(int n) throws IOException {
+        if (windowBits < n) {refill();}
+        if (windowBits - padBits < n) {throw new EOFException();}
+        window <<= n;
+        windowBits -= n;
+    }
+
+    /**
+     * Reads and consumes the next bits
+     *
+     * @param n the number of bits to read, between 0 and 32
+     * @return the next n bits, right-aligned
+     * @throws IOException if the underlying source fails
+     * @throws EOFException if fewer than n bits are left
+     */
+    public int readBits(int n) throws IOException {
+        int bits = peekBits(n);
+        skipBits(n);
+        return bits;
+    }
+
+    /**
+     * Reads the next bit
+     *
+     * @return the next bit
+     * @throws IOException if the underlying source fails
+     * @throws EOFException if there are no bits left
+     */
+    public int readBit() throws IOException {
+        return readBits(1);
+    }
+
+    /**
+     * Reads the next byte
+     *
+     * @return the next 8 bits
+     * @throws IOException if the underlying source fails
+     * @throws EOFException if fewer than 8 bits are left
+     */
+    public byte readByte() throws IOException {
+        return (byte) readBits(8);
+    }
+
+    /**
+     * Reads the next int
+     *
+     * @return the next 32 bits
+     * @throws IOException if the underlying source fails
+     * @throws EOFException if fewer than 32 bits are left
+     */
+    public int readInt() throws IOException {
+        return readBits(32);
+    }
+
+    /**
+     * Discards the bits up to the next byte boundary
+     *
+     * @throws IOException if the underlying source fails
+     */
+    public void alignToByte() throws IOException {
+        skipBits((windowBits - padBits) & 7);
+    }
+
+    /**
+     * Close the underlying stream
+     *
+     * @throws IOException if the underlying source fails
+     */
+    public void close() throws IOException {
+        if (in != null) {in.close();}
+    }
+
+    /**
+     * Helper method that tops up the window to at least 57 bits, padding it
+     * with zeros once the input is exhausted
+     *
+     * @throws IOException if the underlying source fails
+     */
+    private void refill() throws IOException {
+        while (windowBits <= MIN_WINDOW_BITS) {
+            if (bufPos == bufLimit && !fillBuffer()) {
+                padBits += 64 - windowBits;
+                windowBits = 64;
+                return;
+            }
+            window |= (buf[bufPos++] & 0xffL) << (MIN_WINDOW_BITS - windowBits);
+            windowBits += 8;
+        }
+    }
+
+    /**
+     * Helper method that reads the next chunk of the underlying source
+     *
+     * @return false if the source is exhausted
+     * @throws IOException if the underlying source fails
+     */
+    private boolean fillBuffer() throws IOException {
+        if (eof) {return false;}
+        int n;
+        if (in != null) {
+            n = in.read(buf, 0, buf.length);
+        } else {
+            n = Math.min(buf.length, src.remaining());
+            src.get(buf, 0, n);
+            if (n == 0) {n = -1;}
+        }
+        if (n < 0) {
+            eof = true;
+            return false;
+        }
+        bufPos = 0;
+        bufLimit = n;
+        return true;
+    }
+
+}
@@ -0,0 +1,176 @@
+/*
+ * Name: Xiaotong Zuo
+ * PID: A15445495
+ */
+
+import java.io.*;
+import java.nio.ByteBuffer;
+
+/**
+ * Bit-level output stream. Bits are collected in a 64-bit accumulator, moved
+ * to a byte buffer a whole 32-bit word at a time, and the buffer is handed to
+ * the underlying stream or ByteBuffer only when it is full or flushed.
+ */
+public class BitOutputStream {
+    // default size of the byte buffer
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+    // number of bits in a word moved out of the accumulator
+    private static final int WORD_BITS = 32;
+
+    private OutputStream out; // the underlying stream, null if writing to dst
+    private ByteBuffer dst; // the underlying buffer, null if writing to out
+    private byte[] buf; // bytes not yet handed to the underlying sink
+    private int bufPos; // number of bytes in buf
+    private long acc; // pending bits, right-aligned
+    private int accBits; // number of pending bits in acc
+    private long bitsWritten; // number of bits written so far
+
+    /**
+     * Initializes a bit stream writing to the given stream
+     *
+     * @param out the underlying output stream
+     */
+    public BitOutputStream(OutputStream out) {
+        this(out, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Initializes a bit stream writing to the given stream with a given buffer
+     * size
+     *
+     * @param out        the underlying output stream
+     * @param bufferSize the size of the byte buffer, at least 8
+     * @throws IllegalArgumentException if bufferSize is less than 8
+     */
+    public BitOutputStream(OutputStream out, int bufferSize) throws IllegalArgumentException {
+        if (bufferSize < 8) {throw new IllegalArgumentException();}
+        this.out = out;
+        this.buf = new byte[bufferSize];
+    }
+
+    /**
+     * Initializes a bit stream writing to the given buffer, starting at its
+     * current position
+     *
+     * @param dst the underlying buffer
+     */
+    public BitOutputStream(ByteBuffer dst) {
+        this.dst = dst;
+        this.buf = new byte[Math.max(8, Math.min(DEFAULT_BUFFER_SIZE, dst.remaining()))];
+    }
+
+    /**
+     * Write the lowest bit of the given int
+     *
+     * @param bit the bit to write
+     * @throws IOException if the underlying sink fails
+     */
+    public void writeBit(int bit) throws IOException {
+        writeBits(bit, 1);
+    }
+
+    /**
+     * Write the lowest len bits of the given code, most significant bit first
+     *
+     * @param code the bits to write
+     * @param len  the number of bits to write, between 0 and 32
+     * @throws IOException if the underlying sink fails
+     */
+    public void writeBits(int code, int len) throws IOException {
+        acc = (acc << len) | (code & ((1L << len) - 1));
+        accBits += len;
+        bitsWritten += len;
+        if (accBits >= WORD_BITS) {
+            if (bufPos + 4 > buf.length) {flushBuffer();}
+            int word = (int) (acc >>> (accBits - WORD_BITS));
+            buf[bufPos] = (byte) (word >>> 24);
+            buf[bufPos + 1] = (byte) (word >>> 16);
+            buf[bufPos + 2] = (byte) (word >>> 8);
+            buf[bufPos + 3] = (byte) word;
+            bufPos += 4;
+            accBits -= WORD_BITS;
+        }
+    }
+
+    /**
+     * Write a byte
+     *
+     * @param b the byte to write
+     * @throws IOException if the underlying sink fails
+     */
+    public void writeByte(byte b) throws IOException {
+        writeBits(b, 8);
+    }
+
+    /**
+     * Write an int
+     *
+     * @param i the int to write
+     * @throws IOException if the underlying sink fails
+     */
+    public void writeInt(int i) throws IOException {
+        writeBits(i, 32);
+    }
+
+    /**
+     * Returns the number of bits written so far
+     *
+     * @return the number of bits written, not counting padding
+     */
+    public long getBitsWritten() {
+        return bitsWritten;
+    }
+
+    /**
+     * Pad the pending bits with zeros up to a byte boundary
+     *
+     * @throws IOException if the underlying sink fails
+     */
+    public void alignToByte() throws IOException {
+        int pad = (8 - (accBits & 7)) & 7;
+        writeBits(0, pad);
+        bitsWritten -= pad;
+    }
+
+    /**
+     * Pad the pending bits to a byte boundary and write everything out to the
+     * underlying sink
+     *
+     * @throws IOException if the underlying sink fails
+     */
+    public void flush() throws IOException {
+        alignToByte();
+        while (accBits > 0) {
+            if (bufPos == buf.length) {flushBuffer();}
+            accBits -= 8;
+            buf[bufPos++] = (byte) (acc >>> accBits);
+        }
+        flushBuffer();
+        if (out != null) {out.flush();}
+    }
+
+    /**
+     * Flush and close the underlying stream
+     *
+     * @throws IOException if the underlying sink fails
+     */
+    public void close() throws IOException {
+        flush();
+        if (out != null) {out.close();}
+    }
+
+    /**
+     * Helper method that hands the byte buffer to the underlying sink
+     *
+     * @throws IOException if the underlying sink fails
+     */
+    private void flushBuffer() throws IOException {
+        if (out != null) {
+            out.write(buf, 0, bufPos);
+        } else {
+            dst.put(buf, 0, bufPos);
+        }
+        bufPos = 0;
+    }
+
+}
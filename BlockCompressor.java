@@ -0,0 +1,409 @@
+/*
+ * Name: Xiaotong Zuo
+ * PID: A15445495
+ */
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Block-parallel Huffman compressor. The input is split into fixed-size
+ * blocks that are counted, encoded and decoded independently on a
+ * ForkJoinPool, each with its own HCTree.
+ *
+ * Container format: MAGIC, block size, the compressed blocks, then an index
+ * of (offset, compressed length, original length) per block, and a trailer
+ * holding the offset of the index and MAGIC again. Blocks are coded in the
+ * four-stream format of InterleavedHuffman.
+ */
+public class BlockCompressor {
+    // default number of input bytes per block
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+    // marks the start and the end of a container
+    private static final int MAGIC = 0x48434231;
+    // number of bytes before the first block
+    private static final int HEADER_SIZE = 8;
+    // number of bytes of the trailer
+    private static final int TRAILER_SIZE = 12;
+    // number of bytes of each index entry
+    private static final int ENTRY_SIZE = 16;
+
+    private int blockSize; // number of input bytes per block
+    private ForkJoinPool pool; // the pool running block tasks
+    private HCStats stats; // metrics of this compressor, or null
+
+    /**
+     * Initializes a compressor with the default block size on the common pool
+     */
+    public BlockCompressor() {
+        this(DEFAULT_BLOCK_SIZE, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Initializes a compressor with a given block size and pool
+     *
+     * @param blockSize number of input bytes per block
+     * @param pool      the pool running block tasks
+     * @throws IllegalArgumentException if blockSize is less than one
+     */
+    public BlockCompressor(int blockSize, ForkJoinPool pool) throws IllegalArgumentException {
+        if (blockSize < 1) {throw new IllegalArgumentException();}
+        this.blockSize = blockSize;
+        this.pool = pool;
+    }
+
+    /**
+     * Record the metrics of every later compression and decompression in the
+     * given stats
+     *
+     * @param stats the stats to record in, or null to stop recording
+     */
+    public void setStats(HCStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * Compress the given stream into a container written to the given stream.
+     * A few blocks per worker thread are buffered at a time.
+     *
+     * @param in  the input stream
+     * @param out the output stream
+     * @throws IOException if reading or writing fails
+     */
+    public void compress(InputStream in, OutputStream out) throws IOException {
+        DataOutputStream dataOut = new DataOutputStream(new BufferedOutputStream(out));
+        dataOut.writeInt(MAGIC);
+        dataOut.writeInt(blockSize);
+        long offset = HEADER_SIZE;
+        List<long[]> index = new ArrayList<>();
+        int batch = pool.getParallelism() * 4;
+        long flushNanos = 0;
+        boolean done = false;
+        while (!done) {
+            List<Callable<byte[]>> tasks = new ArrayList<>();
+            List<Integer> lens = new ArrayList<>();
+            while (tasks.size() < batch) {
+                byte[] block = in.readNBytes(blockSize);
+                if (block.length == 0) {
+                    done = true;
+                    break;
+                }
+                tasks.add(() -> encodeBlock(block, 0, block.length, stats));
+                lens.add(block.length);
+            }
+            List<byte[]> encoded = runAll(tasks);
+            long start = System.nanoTime();
+            for (int i = 0; i < encoded.size(); i++) {
+                dataOut.write(encoded.get(i));
+                index.add(new long[] {offset, encoded.get(i).length, lens.get(i)});
+                offset += encoded.get(i).length;
+            }
+            flushNanos += System.nanoTime() - start;
+        }
+        long start = System.nanoTime();
+        writeIndex(dataOut, index, offset);
+        dataOut.flush();
+        if (stats != null) {
+            // blocks, then the index count, 16 bytes per block and the trailer
+            long size = offset + 4 + 16L * index.size() + TRAILER_SIZE;
+            stats.recordFlush(size, flushNanos + System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Compress the given array into a container
+     *
+     * @param src the bytes to compress
+     * @return the container
+     * @throws IOException if encoding fails
+     */
+    public byte[] compress(byte[] src) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(src.length / 2 + 64);
+        compress(new ByteArrayInputStream(src), out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Decompress the given container file to the given stream
+     *
+     * @param in  path of the container
+     * @param out the output stream
+     * @throws IOException if the container is malformed or reading fails
+     */
+    public void decompress(Path in, OutputStream out) throws IOException {
+        try (FileChannel ch = FileChannel.open(in, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < HEADER_SIZE + 4 + TRAILER_SIZE) {throw new IOException("Not a block container");}
+            int containerBlockSize = checkHeader(read(ch, 0, HEADER_SIZE));
+            long indexOffset = checkTrailer(read(ch, size - TRAILER_SIZE, TRAILER_SIZE), size);
+            if (size - TRAILER_SIZE - indexOffset > Integer.MAX_VALUE) {
+                throw new IOException("Malformed block index");
+            }
+            ByteBuffer index = read(ch, indexOffset, (int) (size - TRAILER_SIZE - indexOffset));
+            int numBlocks = checkIndex(index);
+            int batch = pool.getParallelism() * 4;
+            for (int first = 0; first < numBlocks; first += batch) {
+                List<Callable<byte[]>> tasks = new ArrayList<>();
+                for (int i = first; i < Math.min(first + batch, numBlocks); i++) {
+                    long offset = index.getLong();
+                    int compLen = index.getInt();
+                    int origLen = index.getInt();
+                    checkEntry(offset, compLen, origLen, indexOffset, containerBlockSize);
+                    ByteBuffer block = read(ch, offset, compLen);
+                    tasks.add(() -> decodeBlock(block, origLen, stats));
+                }
+                for (byte[] block : runAll(tasks)) {out.write(block);}
+            }
+        }
+    }
+
+    /**
+     * Decompress the given container
+     *
+     * @param src the container
+     * @return the original bytes
+     * @throws IOException if the container is malformed
+     */
+    public byte[] decompress(byte[] src) throws IOException {
+        if (src.length < HEADER_SIZE + 4 + TRAILER_SIZE) {throw new IOException("Not a block container");}
+        int containerBlockSize = checkHeader(ByteBuffer.wrap(src, 0, HEADER_SIZE));
+        ByteBuffer trailer = ByteBuffer.wrap(src, src.length - TRAILER_SIZE, TRAILER_SIZE);
+        int indexOffset = (int) checkTrailer(trailer, src.length);
+        ByteBuffer index = ByteBuffer.wrap(src, indexOffset, src.length - TRAILER_SIZE - indexOffset);
+        int numBlocks = checkIndex(index);
+        List<Callable<byte[]>> tasks = new ArrayList<>();
+        for (int i = 0; i < numBlocks; i++) {
+            long offset = index.getLong();
+            int compLen = index.getInt();
+            int origLen = index.getInt();
+            checkEntry(offset, compLen, origLen, indexOffset, containerBlockSize);
+            ByteBuffer block = ByteBuffer.wrap(src, (int) offset, compLen);
+            tasks.add(() -> decodeBlock(block, origLen, stats));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] block : runAll(tasks)) {out.write(block);}
+        return out.toByteArray();
+    }
+
+    /**
+     * Encode one block with its own HCTree. The block holds the length of the
+     * canonical header as a short, the header padded to a byte boundary, and
+     * the symbols in the four-stream format of InterleavedHuffman.
+     *
+     * @param src the input bytes
+     * @param off the first byte of the block
+     * @param len the number of bytes in the block, at least one
+     * @return the encoded block
+     * @throws IOException if encoding fails
+     */
+    static byte[] encodeBlock(byte[] src, int off, int len) throws IOException {
+        return encodeBlock(src, off, len, null);
+    }
+
+    /**
+     * Encode one block, recording the time of each phase
+     *
+     * @param src   the input bytes
+     * @param off   the first byte of the block
+     * @param len   the number of bytes in the block, at least one
+     * @param stats the stats to record in, or null
+     * @return the encoded block
+     * @throws IOException if encoding fails
+     */
+    static byte[] encodeBlock(byte[] src, int off, int len, HCStats stats) throws IOException {
+        long start = System.nanoTime();
+        int[] freq = FrequencyCounter.count(src, off, len);
+        long counted = System.nanoTime();
+        HCTree tree = new HCTree();
+        tree.buildTree(freq, HCTree.DEFAULT_MAX_CODE_LEN);
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        BitOutputStream headerOut = new BitOutputStream(header);
+        tree.writeCanonicalHeader(headerOut);
+        headerOut.flush();
+        long built = System.nanoTime();
+        byte[] payload = InterleavedHuffman.encode(tree, src, off, len);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(2 + header.size() + payload.length);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeShort(header.size());
+        header.writeTo(out);
+        out.write(payload);
+        out.flush();
+        if (stats != null) {
+            stats.recordHistogram(len, counted - start);
+            stats.recordBuild(tree, freq, built - counted);
+            stats.recordEncode(System.nanoTime() - built);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode one block
+     *
+     * @param src     the encoded block, backed by an array
+     * @param origLen the number of bytes in the block
+     * @return the original bytes
+     * @throws IOException if the block is malformed
+     */
+    static byte[] decodeBlock(ByteBuffer src, int origLen) throws IOException {
+        return decodeBlock(src, origLen, null);
+    }
+
+    /**
+     * Decode one block, recording the time taken
+     *
+     * @param src     the encoded block, backed by an array
+     * @param origLen the number of bytes in the block
+     * @param stats   the stats to record in, or null
+     * @return the original bytes
+     * @throws IOException if the block is malformed
+     */
+    static byte[] decodeBlock(ByteBuffer src, int origLen, HCStats stats) throws IOException {
+        long start = System.nanoTime();
+        if (src.remaining() < 2) {throw new EOFException();}
+        int headerLen = src.getShort() & 0xffff;
+        if (headerLen > src.remaining()) {throw new EOFException();}
+        ByteBuffer header = src.slice();
+        header.limit(headerLen);
+        HCTree tree = new HCTree();
+        tree.readCanonicalHeader(new BitInputStream(header));
+        byte[] dst = new byte[origLen];
+        int payloadOff = src.arrayOffset() + src.position() + headerLen;
+        InterleavedHuffman.decode(tree, src.array(), payloadOff, src.remaining() - headerLen,
+                dst, 0, origLen);
+        if (stats != null) {stats.recordDecode(origLen, System.nanoTime() - start);}
+        return dst;
+    }
+
+    /**
+     * Helper method that runs the given tasks on the pool and collects their
+     * results in order
+     *
+     * @param tasks the tasks to run
+     * @return the result of each task
+     * @throws IOException if a task fails
+     */
+    private List<byte[]> runAll(List<Callable<byte[]>> tasks) throws IOException {
+        List<byte[]> results = new ArrayList<>();
+        try {
+            for (Future<byte[]> f : pool.invokeAll(tasks)) {results.add(f.get());}
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {throw (IOException) e.getCause();}
+            throw new IOException(e.getCause());
+        }
+        return results;
+    }
+
+    /**
+     * Helper method that checks the header of a container
+     *
+     * @param header the header bytes
+     * @return the block size of the container
+     * @throws IOException if the header is malformed
+     */
+    private static int checkHeader(ByteBuffer header) throws IOException {
+        if (header.getInt() != MAGIC) {throw new IOException("Not a block container");}
+        int containerBlockSize = header.getInt();
+        if (containerBlockSize < 1) {throw new IOException("Malformed block size");}
+        return containerBlockSize;
+    }
+
+    /**
+     * Helper method that checks the trailer of a container
+     *
+     * @param trailer the trailer bytes
+     * @param size    the size of the container
+     * @return the offset of the index, between the header and the trailer
+     * @throws IOException if the trailer is malformed
+     */
+    private static long checkTrailer(ByteBuffer trailer, long size) throws IOException {
+        long indexOffset = trailer.getLong();
+        if (trailer.getInt() != MAGIC) {throw new IOException("Not a block container");}
+        if (indexOffset < HEADER_SIZE || indexOffset > size - TRAILER_SIZE - 4) {
+            throw new IOException("Malformed index offset");
+        }
+        return indexOffset;
+    }
+
+    /**
+     * Helper method that reads the number of blocks of an index and checks
+     * that the index holds exactly that many entries
+     *
+     * @param index the index, from its start to the trailer
+     * @return the number of blocks
+     * @throws IOException if the index is malformed
+     */
+    private static int checkIndex(ByteBuffer index) throws IOException {
+        int numBlocks = index.getInt();
+        if (numBlocks < 0 || (long) numBlocks * ENTRY_SIZE != index.remaining()) {
+            throw new IOException("Malformed block index");
+        }
+        return numBlocks;
+    }
+
+    /**
+     * Helper method that checks an index entry: the block must lie between the
+     * header and the index and hold at most a block of input
+     *
+     * @param offset      the offset of the block
+     * @param compLen     the compressed length of the block
+     * @param origLen     the original length of the block
+     * @param indexOffset the offset of the index
+     * @param blockSize   the block size of the container
+     * @throws IOException if the entry is malformed
+     */
+    private static void checkEntry(long offset, int compLen, int origLen, long indexOffset,
+                                   int blockSize) throws IOException {
+        if (offset < HEADER_SIZE || compLen < 0 || offset > indexOffset - compLen
+                || origLen < 0 || origLen > blockSize) {
+            throw new IOException("Malformed block index");
+        }
+    }
+
+    /**
+     * Helper method that writes the block index and the trailer
+     *
+     * @param out         the output stream
+     * @param index       (offset, compressed length, original length) per block
+     * @param indexOffset the offset the index is written at
+     * @throws IOException if writing fails
+     */
+    private static void writeIndex(DataOutputStream out, List<long[]> index, long indexOffset)
+            throws IOException {
+        out.writeInt(index.size());
+        for (long[] entry : index) {
+            out.writeLong(entry[0]);
+            out.writeInt((int) entry[1]);
+            out.writeInt((int) entry[2]);
+        }
+        out.writeLong(indexOffset);
+        out.writeInt(MAGIC);
+    }
+
+    /**
+     * Helper method that reads a range of a file
+     *
+     * @param ch     the file
+     * @param offset the first byte of the range
+     * @param len    the number of bytes in the range
+     * @return a buffer holding the range
+     * @throws IOException if the file is shorter than the range
+     */
+    private static ByteBuffer read(FileChannel ch, long offset, int len) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(len);
+        while (buf.hasRemaining()) {
+            if (ch.read(buf, offset + buf.position()) < 0) {throw new EOFException();}
+        }
+        buf.flip();
+        return buf;
+    }
+
+}
@@ -0,0 +1,521 @@
+/*
+ * Name: Xiaotong Zuo
+ * PID:  A15445495
+ */
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Max priority queue that holds more elements than fit in memory. New
+ * elements go into a bounded dHeap; when it fills up, it is drained in
+ * sorted order into a run file on disk. poll returns the larger of the
+ * buffer's root and the largest run head. Only the head of each run is kept
+ * in memory, and a run file is opened the first time its head is taken and
+ * deleted once it is used up. Spilled runs are level 0; once MERGE_FACTOR runs
+ * of one level exist, they are merged into one run of the next level. Each
+ * element is thus rewritten once per level, O(log(n / bufferSize)) times, and
+ * the number of open files and read buffers stays bounded.
+ *
+ * Elements are written to disk by a Codec. Call close to delete the run
+ * files that are left.
+ *
+ * @param <T> Generic type
+ */
+public class ExternalPriorityQueue<T extends Comparable<? super T>> implements Closeable {
+    // branching factor of the heaps, like MyPriorityQueue
+    private static final int D = 5;
+    // number of runs of one level that are merged into one of the next level
+    private static final int MERGE_FACTOR = 16;
+    // number of levels, more than enough for any long number of elements
+    private static final int MAX_LEVELS = 64;
+    // size of the buffer of each open run
+    private static final int RUN_BUFFER_SIZE = 1 << 13;
+    // size of the buffer writing a run
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    private dHeap<T> buffer; // the elements in memory
+    private int bufferSize; // the number of elements the buffer holds
+    private dHeap<Run> runs; // the runs on disk, ordered by head
+    private int[] levelRuns; // the number of runs of each level
+    private Codec<T> codec; // writes and reads elements
+    private Path dir; // the directory of the run files
+    private long size; // the number of elements
+
+    /**
+     * Writes and reads the elements of a queue
+     *
+     * @param <T> Generic type
+     */
+    public interface Codec<T> {
+
+        /**
+         * Write an element
+         *
+         * @param element the element
+         * @param out     the output stream
+         * @throws IOException if writing fails
+         */
+        void write(T element, DataOutput out) throws IOException;
+
+        /**
+         * Read an element written by write
+         *
+         * @param in the input stream
+         * @return the element
+         * @throws IOException if reading fails
+         */
+        T read(DataInput in) throws IOException;
+    }
+
+    /**
+     * Input stream counting the bytes read through it
+     */
+    private static class CountingInputStream extends FilterInputStream {
+
+        long count; // the number of bytes read
+
+        /**
+         * Initializes a stream counting the bytes read from another
+         *
+         * @param in the underlying stream
+         */
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        /**
+         * Reads a byte
+         *
+         * @return the byte, or -1 at the end of the stream
+         * @throws IOException if reading fails
+         */
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {count++;}
+            return b;
+        }
+
+        /**
+         * Reads bytes into the given array
+         *
+         * @param b   the destination array
+         * @param off the first index to fill
+         * @param len the maximum number of bytes to read
+         * @return the number of bytes read, or -1 at the end of the stream
+         * @throws IOException if reading fails
+         */
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0) {count += n;}
+            return n;
+        }
+
+        /**
+         * Skips bytes
+         *
+         * @param n the number of bytes to skip
+         * @return the number of bytes skipped
+         * @throws IOException if skipping fails
+         */
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+
+    /**
+     * A sorted run file with its head held in memory. A copy of a run reads
+     * the same file from the same place without changing the run, and leaves
+     * the file alone when it is used up.
+     */
+    private class Run implements Comparable<Run> {
+
+        Path path; // the run file, or null if the run holds only its head
+        DataInputStream in; // reads the file, or null until first needed
+        CountingInputStream counter; // counts the bytes in has read
+        long start; // the offset in the file where in starts
+        T head; // the largest element left
+        long remaining; // the number of elements left in the file
+        int level; // the number of merges that built the run
+        boolean copy; // whether this is a copy that must not delete the file
+
+        /**
+         * Initializes a run
+         *
+         * @param path      the run file
+         * @param head      the largest element
+         * @param remaining the number of elements in the file
+         * @param level     the number of merges that built the run
+         */
+        Run(Path path, T head, long remaining, int level) {
+            this.path = path;
+            this.head = head;
+            this.remaining = remaining;
+            this.level = level;
+        }
+
+        /**
+         * Initializes a copy of a run, positioned where the run is
+         *
+         * @param run the run to copy
+         */
+        Run(Run run) {
+            this(run.path, run.head, run.remaining, run.level);
+            start = run.offset();
+            copy = true;
+        }
+
+        /**
+         * Returns the offset in the file of the next element to read
+         *
+         * @return the offset in bytes
+         */
+        long offset() {
+            return counter == null ? start : start + counter.count;
+        }
+
+        /**
+         * Read the next element into head, closing the run once it is used up
+         *
+         * @return false if the run is used up
+         * @throws IOException if reading fails
+         */
+        boolean advance() throws IOException {
+            if (remaining == 0) {
+                close();
+                return false;
+            }
+            if (in == null) {
+                SeekableByteChannel channel = Files.newByteChannel(path);
+                channel.position(start);
+                counter = new CountingInputStream(new BufferedInputStream(
+                        Channels.newInputStream(channel), RUN_BUFFER_SIZE));
+                in = new DataInputStream(counter);
+            }
+            head = codec.read(in);
+            remaining--;
+            return true;
+        }
+
+        /**
+         * Close the run, deleting its file and dropping it from its level
+         * unless it is a copy
+         *
+         * @throws IOException if closing or deleting fails
+         */
+        void close() throws IOException {
+            if (head == null) {return;}
+            head = null;
+            if (!copy) {levelRuns[level]--;}
+            if (path == null) {return;}
+            if (in != null) {in.close();}
+            if (!copy) {Files.deleteIfExists(path);}
+            path = null;
+        }
+
+        /**
+         * Compares the heads of two runs
+         *
+         * @param o the other run
+         * @return the comparison of the heads
+         */
+        @Override
+        public int compareTo(Run o) {
+            return head.compareTo(o.head);
+        }
+    }
+
+    /**
+     * Constructor that creates a queue spilling to the temporary directory
+     *
+     * @param bufferSize the number of elements held in memory
+     * @param codec      writes and reads elements
+     * @throws IllegalArgumentException if bufferSize is less than one
+     */
+    public ExternalPriorityQueue(int bufferSize, Codec<T> codec) throws IllegalArgumentException {
+        this(bufferSize, codec, Path.of(System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * Constructor that creates a queue spilling to the given directory
+     *
+     * @param bufferSize the number of elements held in memory
+     * @param codec      writes and reads elements
+     * @param dir        the directory of the run files
+     * @throws IllegalArgumentException if bufferSize is less than one
+     */
+    public ExternalPriorityQueue(int bufferSize, Codec<T> codec, Path dir)
+            throws IllegalArgumentException {
+        if (bufferSize < 1) {throw new IllegalArgumentException();}
+        this.bufferSize = bufferSize;
+        this.codec = codec;
+        this.dir = dir;
+        buffer = new dHeap<>(D, bufferSize, true);
+        runs = new dHeap<>(D, MERGE_FACTOR, true);
+        levelRuns = new int[MAX_LEVELS];
+    }
+
+    /**
+     * Inserts an element into the queue, spilling the buffer to disk if it is
+     * full. The element received cannot be null.
+     *
+     * @param element Element to be inserted.
+     * @return returns true
+     * @throws NullPointerException if the element received is null.
+     * @throws UncheckedIOException if writing a run fails
+     */
+    public boolean offer(T element) throws NullPointerException, UncheckedIOException {
+        if (element == null) {throw new NullPointerException();}
+        try {
+            if (buffer.size() == bufferSize) {spill();}
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.add(element);
+        size++;
+        return true;
+    }
+
+    /**
+     * Retrieves the head of this queue (largest element), or null if the
+     * queue is empty.
+     *
+     * @return The head of the queue (largest element), or null if queue is empty.
+     * @throws UncheckedIOException if reading a run fails
+     */
+    public T poll() throws UncheckedIOException {
+        if (size == 0) {return null;}
+        T head;
+        if (runs.size() == 0
+                || (buffer.size() > 0 && buffer.element().compareTo(runs.element().head) >= 0)) {
+            head = buffer.remove();
+        } else {
+            try {
+                head = pollRun(runs);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        size--;
+        return head;
+    }
+
+    /**
+     * Retrieves, but does not remove, the head of this queue, or returns null if
+     * this queue is empty.
+     *
+     * @return the next item to be removed, null if the queue is empty
+     */
+    public T peek() {
+        if (size == 0) {return null;}
+        if (runs.size() == 0) {return buffer.element();}
+        T head = runs.element().head;
+        if (buffer.size() > 0 && buffer.element().compareTo(head) >= 0) {return buffer.element();}
+        return head;
+    }
+
+    /**
+     * Returns the number of elements, in memory and on disk
+     *
+     * @return number of elements
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Return true is the queue is empty, false otherwise
+     *
+     * @return whether the queue is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Clears the contents of the queue, deleting every run file
+     *
+     * @throws UncheckedIOException if deleting a run fails
+     */
+    public void clear() throws UncheckedIOException {
+        try {
+            close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Empties the queue and deletes every run file
+     *
+     * @throws IOException if deleting a run fails
+     */
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        while (runs.size() > 0) {
+            try {
+                runs.remove().close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        Arrays.fill(levelRuns, 0);
+        buffer.clear();
+        size = 0;
+        if (failure != null) {throw failure;}
+    }
+
+    /**
+     * Helper method that removes the largest run head of a heap of runs,
+     * reading the next element of its run in its place
+     *
+     * @param from the heap of runs
+     * @return the largest run head
+     * @throws IOException if reading the run fails
+     */
+    private T pollRun(dHeap<Run> from) throws IOException {
+        Run run = from.element();
+        T head = run.head;
+        if (run.advance()) {
+            from.replace(run);
+        } else {
+            from.remove();
+        }
+        return head;
+    }
+
+    /**
+     * Helper method that writes the buffer to a new level 0 run in sorted
+     * order, first merging every level that already holds MERGE_FACTOR runs.
+     * If writing fails, the run file is deleted and the buffer is restored.
+     *
+     * @throws IOException if writing fails
+     */
+    @SuppressWarnings("unchecked")
+    private void spill() throws IOException {
+        for (int level = 0; level < MAX_LEVELS - 1 && levelRuns[level] >= MERGE_FACTOR; level++) {
+            mergeLevel(level);
+        }
+        T[] sorted = buffer.drainSorted((T[]) new Comparable[buffer.size()]);
+        Path path = null;
+        try {
+            if (sorted.length > 1) {
+                path = Files.createTempFile(dir, "epq", ".run");
+                try (DataOutputStream out = openRun(path)) {
+                    for (int i = 1; i < sorted.length; i++) {codec.write(sorted[i], out);}
+                }
+            }
+        } catch (IOException e) {
+            if (path != null) {deleteQuietly(path, e);}
+            buffer.addAll(sorted);
+            throw e;
+        }
+        runs.add(new Run(path, sorted[0], sorted.length - 1, 0));
+        levelRuns[0]++;
+    }
+
+    /**
+     * Helper method that merges every run of a level into one run of the next
+     * level. The merge reads copies of the runs, so they are only used up and
+     * deleted once the merged run is complete; if the merge fails, its file
+     * is deleted and the queue is unchanged. The runs are taken out of the
+     * heap and put back, which is cheap next to the disk I/O since there are
+     * few of them.
+     *
+     * @param level the level to merge
+     * @throws IOException if reading or writing fails
+     */
+    private void mergeLevel(int level) throws IOException {
+        List<Run> all = new ArrayList<>();
+        while (runs.size() > 0) {all.add(runs.remove());}
+        runs.addAll(all);
+        dHeap<Run> merging = new dHeap<>(D, MERGE_FACTOR, true);
+        for (Run run : all) {
+            if (run.level == level) {merging.add(new Run(run));}
+        }
+        T head = null;
+        long count = 0;
+        Path path = null;
+        try {
+            head = pollRun(merging);
+            path = Files.createTempFile(dir, "epq", ".run");
+            try (DataOutputStream out = openRun(path)) {
+                while (merging.size() > 0) {
+                    codec.write(pollRun(merging), out);
+                    count++;
+                }
+            }
+        } catch (IOException e) {
+            while (merging.size() > 0) {
+                try {
+                    merging.remove().close();
+                } catch (IOException closing) {
+                    e.addSuppressed(closing);
+                }
+            }
+            if (path != null) {deleteQuietly(path, e);}
+            throw e;
+        }
+        // swap the merged run in for the runs it was built from
+        List<Run> merged = new ArrayList<>();
+        List<Run> kept = new ArrayList<>();
+        while (runs.size() > 0) {
+            Run run = runs.remove();
+            if (run.level == level) {
+                merged.add(run);
+            } else {
+                kept.add(run);
+            }
+        }
+        kept.add(new Run(path, head, count, level + 1));
+        levelRuns[level + 1]++;
+        runs.addAll(kept);
+        IOException failure = null;
+        for (Run run : merged) {
+            try {
+                run.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {throw failure;}
+    }
+
+    /**
+     * Helper method that deletes a file after a failure, recording a failure
+     * to delete it with the first one
+     *
+     * @param path    the file
+     * @param failure the first failure
+     */
+    private static void deleteQuietly(Path path, IOException failure) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Helper method that opens a run file for writing
+     *
+     * @param path the run file
+     * @return the output stream
+     * @throws IOException if opening fails
+     */
+    private static DataOutputStream openRun(Path path) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path),
+                WRITE_BUFFER_SIZE));
+    }
+
+}
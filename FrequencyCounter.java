@@ -0,0 +1,187 @@
+/*
+ * Name: Xiaotong Zuo
+ * PID: A15445495
+ */
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Byte histogram for building HCTrees. Bytes are counted into four
+ * interleaved tables that are summed at the end, so runs of the same byte do
+ * not make every increment wait for the previous one. Large inputs can also be
+ * split across the threads of a ForkJoinPool.
+ *
+ * Counts are ints like the frequency array HCTree.buildTree takes, so a
+ * single symbol may occur at most Integer.MAX_VALUE times.
+ */
+public class FrequencyCounter {
+    // alphabet size of extended ASCII
+    private static final int NUM_CHARS = 256;
+    // number of interleaved count tables
+    private static final int NUM_TABLES = 4;
+    // inputs up to this size are counted by a single task
+    private static final int SPLIT_SIZE = 1 << 20;
+    // size of the chunks copied out of streams and direct buffers
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    /**
+     * Count the bytes of an array
+     *
+     * @param src the bytes to count
+     * @return the number of occurrences of each byte value
+     */
+    public static int[] count(byte[] src) {
+        return count(src, 0, src.length);
+    }
+
+    /**
+     * Count the bytes of a range of an array
+     *
+     * @param src the bytes to count
+     * @param off the first byte of the range
+     * @param len the number of bytes in the range
+     * @return the number of occurrences of each byte value
+     */
+    public static int[] count(byte[] src, int off, int len) {
+        int[] tables = new int[NUM_TABLES * NUM_CHARS];
+        countInto(tables, src, off, len);
+        return sum(tables);
+    }
+
+    /**
+     * Count the bytes between the position and the limit of a buffer, without
+     * moving its position
+     *
+     * @param src the bytes to count
+     * @return the number of occurrences of each byte value
+     */
+    public static int[] count(ByteBuffer src) {
+        if (src.hasArray()) {
+            return count(src.array(), src.arrayOffset() + src.position(), src.remaining());
+        }
+        ByteBuffer view = src.duplicate();
+        int[] tables = new int[NUM_TABLES * NUM_CHARS];
+        byte[] chunk = new byte[Math.min(CHUNK_SIZE, view.remaining())];
+        while (view.hasRemaining()) {
+            int n = Math.min(chunk.length, view.remaining());
+            view.get(chunk, 0, n);
+            countInto(tables, chunk, 0, n);
+        }
+        return sum(tables);
+    }
+
+    /**
+     * Count the bytes of a stream until its end
+     *
+     * @param in the bytes to count
+     * @return the number of occurrences of each byte value
+     * @throws IOException if reading fails
+     */
+    public static int[] count(InputStream in) throws IOException {
+        int[] tables = new int[NUM_TABLES * NUM_CHARS];
+        byte[] chunk = new byte[CHUNK_SIZE];
+        int n;
+        while ((n = in.read(chunk, 0, chunk.length)) >= 0) {
+            countInto(tables, chunk, 0, n);
+        }
+        return sum(tables);
+    }
+
+    /**
+     * Count the bytes of an array on the given pool
+     *
+     * @param src  the bytes to count
+     * @param pool the pool counting the parts of the array
+     * @return the number of occurrences of each byte value
+     */
+    public static int[] countParallel(byte[] src, ForkJoinPool pool) {
+        return pool.invoke(new CountTask(ByteBuffer.wrap(src)));
+    }
+
+    /**
+     * Count the bytes between the position and the limit of a buffer on the
+     * given pool, without moving its position
+     *
+     * @param src  the bytes to count
+     * @param pool the pool counting the parts of the buffer
+     * @return the number of occurrences of each byte value
+     */
+    public static int[] countParallel(ByteBuffer src, ForkJoinPool pool) {
+        return pool.invoke(new CountTask(src.slice()));
+    }
+
+    /**
+     * Helper method that adds the bytes of a range of an array to the tables
+     *
+     * @param tables the interleaved tables
+     * @param src    the bytes to count
+     * @param off    the first byte of the range
+     * @param len    the number of bytes in the range
+     */
+    private static void countInto(int[] tables, byte[] src, int off, int len) {
+        int end = off + len;
+        int i = off;
+        for (; i + NUM_TABLES <= end; i += NUM_TABLES) {
+            tables[src[i] & 0xff]++;
+            tables[NUM_CHARS + (src[i + 1] & 0xff)]++;
+            tables[2 * NUM_CHARS + (src[i + 2] & 0xff)]++;
+            tables[3 * NUM_CHARS + (src[i + 3] & 0xff)]++;
+        }
+        for (; i < end; i++) {tables[src[i] & 0xff]++;}
+    }
+
+    /**
+     * Helper method that sums the interleaved tables
+     *
+     * @param tables the interleaved tables
+     * @return the number of occurrences of each byte value
+     */
+    private static int[] sum(int[] tables) {
+        int[] freq = new int[NUM_CHARS];
+        for (int t = 0; t < NUM_TABLES; t++) {
+            for (int i = 0; i < NUM_CHARS; i++) {freq[i] += tables[t * NUM_CHARS + i];}
+        }
+        return freq;
+    }
+
+    /**
+     * Task counting a buffer, splitting it in halves while it is large
+     */
+    private static class CountTask extends RecursiveTask<int[]> {
+        // version of the serialized form inherited from RecursiveTask
+        private static final long serialVersionUID = 1L;
+
+        ByteBuffer src; // the bytes to count, from 0 to the limit
+
+        /**
+         * Initializes a task counting the given buffer
+         *
+         * @param src the bytes to count, from 0 to the limit
+         */
+        CountTask(ByteBuffer src) {
+            this.src = src;
+        }
+
+        /**
+         * Count the buffer
+         *
+         * @return the number of occurrences of each byte value
+         */
+        protected int[] compute() {
+            int len = src.limit();
+            if (len <= SPLIT_SIZE) {return count(src);}
+            int half = len / 2;
+            CountTask low = new CountTask(src.duplicate().limit(half).slice());
+            CountTask high = new CountTask(src.duplicate().position(half).slice());
+            low.fork();
+            int[] freq = high.compute();
+            int[] lowFreq = low.join();
+            for (int i = 0; i < NUM_CHARS; i++) {freq[i] += lowFreq[i];}
+            return freq;
+        }
+    }
+
+}
@@ -0,0 +1,253 @@
+/*
+ * Name: Xiaotong Zuo
+ * PID: A15445495
+ */
+
+import java.util.Arrays;
+
+/**
+ * Multi-level lookup table for decoding Huffman codes. The root table is
+ * indexed by the next ROOT_BITS bits of the input and resolves every code of
+ * at most ROOT_BITS bits with a single array read. Longer codes are resolved
+ * through second-level tables linked from the root table.
+ */
+public class HCDecodeTable {
+    // number of bits resolved by the root table
+    public static final int ROOT_BITS = 11;
+    // longest code the table can hold (the symbol index is packed below it)
+    public static final int MAX_CODE_LEN = 48;
+
+    // flag of an entry that links to a second-level table
+    private static final int LINK = 0x80000000;
+    // mask of the table offset stored in a link entry
+    private static final int OFFSET_MASK = 0x07ffffff;
+    // position of the table width stored in a link entry
+    private static final int WIDTH_SHIFT = 27;
+    // position of the code length stored in a leaf entry
+    private static final int LEN_SHIFT = 16;
+    // mask of the symbol stored in a leaf entry
+    private static final int SYMBOL_MASK = 0xffff;
+
+    private int[] table; // all levels of the table, root table first
+    private int size; // number of entries in use
+    private int rootBits; // number of bits indexing the root table
+    private int[] symbols; // the symbol of each code, by code index
+    private byte[] lens; // the length of each code, by code index
+
+    /**
+     * Initializes a table where the code of each symbol is stored at the
+     * symbol's own index
+     *
+     * @param codes the code of each symbol, right-aligned
+     * @param lens  the length of each code, 0 if the symbol is absent
+     * @throws IllegalArgumentException if a code is longer than MAX_CODE_LEN
+     */
+    public HCDecodeTable(long[] codes, byte[] lens) throws IllegalArgumentException {
+        int[] symbols = new int[lens.length];
+        for (int i = 0; i < symbols.length; i++) {symbols[i] = i;}
+        build(symbols, codes, lens, lens.length);
+    }
+
+    /**
+     * Initializes a table over a sparse alphabet
+     *
+     * @param symbols the symbol of each code, at most 16 bits wide
+     * @param codes   the codes, right-aligned
+     * @param lens    the length of each code, 0 if the code is unused
+     * @param n       number of codes
+     * @throws IllegalArgumentException if a code is longer than MAX_CODE_LEN or
+     *                                  there are more than 65536 codes
+     */
+    public HCDecodeTable(int[] symbols, long[] codes, byte[] lens, int n)
+            throws IllegalArgumentException {
+        build(symbols, codes, lens, n);
+    }
+
+    /**
+     * Returns the number of bits indexing the root table
+     *
+     * @return the root table width
+     */
+    public int getRootBits() {
+        return rootBits;
+    }
+
+    /**
+     * Decodes the code at the start of the given window
+     *
+     * @param window the next 64 bits of input, first bit in the sign bit
+     * @return a packed entry, read with symbol() and length()
+     */
+    public int lookup(long window) {
+        int entry = rootBits == 0 ? table[0] : table[(int) (window >>> (64 - rootBits))];
+        int consumed = rootBits;
+        while (entry < 0) {
+            int width = (entry >>> WIDTH_SHIFT) & 0xf;
+            entry = table[(entry & OFFSET_MASK) + (int) ((window << consumed) >>> (64 - width))];
+            consumed += width;
+        }
+        return entry;
+    }
+
+    /**
+     * Returns the entry of the root table at the given index
+     *
+     * @param index the next rootBits bits of input
+     * @return a packed entry, negative if it links to a second-level table
+     */
+    public int rootEntry(int index) {
+        return table[index];
+    }
+
+    /**
+     * Returns the entry of a second-level table
+     *
+     * @param link  the entry linking to the second-level table
+     * @param index the next bits of input, as many as linkWidth(link)
+     * @return a packed entry, negative if it links to a further table
+     */
+    public int linkedEntry(int link, int index) {
+        return table[(link & OFFSET_MASK) + index];
+    }
+
+    /**
+     * Returns the number of bits indexing the table a link entry points to
+     *
+     * @param link the entry linking to the table
+     * @return the width of the linked table
+     */
+    public static int linkWidth(int link) {
+        return (link >>> WIDTH_SHIFT) & 0xf;
+    }
+
+    /**
+     * Returns the symbol of a leaf entry
+     *
+     * @param entry a leaf entry returned by lookup
+     * @return the decoded symbol
+     */
+    public static int symbol(int entry) {
+        return entry & SYMBOL_MASK;
+    }
+
+    /**
+     * Returns the leaf entry of a decoded symbol
+     *
+     * @param symbol the decoded symbol
+     * @param length the number of bits the symbol takes up
+     * @return a packed entry, read with symbol() and length()
+     */
+    public static int leaf(int symbol, int length) {
+        return (length << LEN_SHIFT) | symbol;
+    }
+
+    /**
+     * Returns the code length of a leaf entry
+     *
+     * @param entry a leaf entry returned by lookup
+     * @return the number of bits the decoded symbol takes up
+     */
+    public static int length(int entry) {
+        return entry >>> LEN_SHIFT;
+    }
+
+    /**
+     * Helper method that sorts the codes by their bits and builds all levels
+     *
+     * @param symbols the symbol of each code
+     * @param codes   the codes, right-aligned
+     * @param lens    the length of each code
+     * @param n       number of codes
+     */
+    private void build(int[] symbols, long[] codes, byte[] lens, int n) {
+        if (n > SYMBOL_MASK + 1) {throw new IllegalArgumentException();}
+        this.symbols = symbols;
+        this.lens = lens;
+        // left-align every code and keep its index in the low bits, so that
+        // one primitive sort orders the codes bit by bit
+        long[] sorted = new long[n];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            int len = lens[i];
+            if (len == 0) {continue;}
+            if (len > MAX_CODE_LEN) {throw new IllegalArgumentException();}
+            sorted[count++] = ((codes[i] << (64 - len)) | i) ^ Long.MIN_VALUE;
+        }
+        sorted = Arrays.copyOf(sorted, count);
+        Arrays.sort(sorted);
+        for (int i = 0; i < count; i++) {sorted[i] ^= Long.MIN_VALUE;}
+
+        table = new int[1 << ROOT_BITS];
+        size = 0;
+        if (count == 0) {
+            rootBits = 0;
+            table[size++] = 0;
+            return;
+        }
+        int root = build(sorted, 0, count, 0);
+        rootBits = linkWidth(root);
+    }
+
+    /**
+     * Helper method that builds the table of all codes sharing a prefix
+     *
+     * @param sorted   the sorted, left-aligned codes
+     * @param lo       the first code sharing the prefix
+     * @param hi       one past the last code sharing the prefix
+     * @param consumed the length of the shared prefix
+     * @return the link entry to the new table
+     */
+    private int build(long[] sorted, int lo, int hi, int consumed) {
+        int maxLen = 0;
+        for (int i = lo; i < hi; i++) {
+            maxLen = Math.max(maxLen, lens[index(sorted[i])]);
+        }
+        int width = Math.min(maxLen - consumed, ROOT_BITS);
+        int offset = allocate(1 << width);
+        int i = lo;
+        while (i < hi) {
+            int code = index(sorted[i]);
+            int len = lens[code];
+            int idx = (int) ((sorted[i] << consumed) >>> (64 - width));
+            if (len <= consumed + width) {
+                int leaf = leaf(symbols[code], len);
+                int fill = 1 << (consumed + width - len);
+                for (int j = 0; j < fill; j++) {table[offset + idx + j] = leaf;}
+                i++;
+            } else {
+                int j = i + 1;
+                while (j < hi && (int) ((sorted[j] << consumed) >>> (64 - width)) == idx) {j++;}
+                int link = build(sorted, i, j, consumed + width);
+                table[offset + idx] = link;
+                i = j;
+            }
+        }
+        return LINK | (width << WIDTH_SHIFT) | offset;
+    }
+
+    /**
+     * Helper method that reserves entries at the end of the table
+     *
+     * @param entries number of entries to reserve
+     * @return the offset of the first reserved entry
+     */
+    private int allocate(int entries) {
+        while (size + entries > table.length) {
+            table = Arrays.copyOf(table, table.length * 2);
+        }
+        int offset = size;
+        size += entries;
+        return offset;
+    }
+
+    /**
+     * Helper method for reading the code index packed into a sorted code
+     *
+     * @param sortedCode a left-aligned code from the sorted array
+     * @return the index of the code
+     */
+    private static int index(long sortedCode) {
+        return (int) (sortedCode & SYMBOL_MASK);
+    }
+
+}
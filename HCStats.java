@@ -0,0 +1,329 @@
+/*
+ * Name: Xiaotong Zuo
+ * PID: A15445495
+ */
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Runtime metrics of HCTree-based compression. A compressor given an HCStats
+ * records the bytes it reads and writes, the trees it builds and the time it
+ * spends in each phase: counting frequencies, building the tree, encoding and
+ * writing out. Decoders record the bytes they decode and how long it took.
+ * Comparing the phase times with the wall time of a job tells whether it is
+ * bound by I/O or by the codec.
+ *
+ * All methods are thread-safe, so one HCStats can be shared by the blocks a
+ * BlockCompressor codes in parallel. Times are summed over threads. The
+ * metrics can be published through JMX with register.
+ */
+public class HCStats implements HCStatsMXBean {
+    // JMX domain of registered stats
+    public static final String DOMAIN = "HCTree";
+    // alphabet size of extended ASCII
+    private static final int NUM_CHARS = 256;
+    // nanoseconds per millisecond
+    private static final double NANOS_PER_MILLI = 1e6;
+    // bytes per megabyte
+    private static final double MB = 1 << 20;
+
+    private LongAdder bytesIn = new LongAdder(); // uncompressed bytes compressed
+    private LongAdder bytesOut = new LongAdder(); // compressed bytes written
+    private LongAdder symbols = new LongAdder(); // symbols coded by built trees
+    private LongAdder codeBits = new LongAdder(); // bits coding those symbols
+    private DoubleAdder entropyBits = new DoubleAdder(); // entropy of those symbols
+    private LongAdder trees = new LongAdder(); // number of trees built
+    private LongAdder depthSum = new LongAdder(); // tree depths weighted by symbols coded
+    private AtomicInteger maxCodeLength = new AtomicInteger(); // longest code
+    private LongAdder histogramNanos = new LongAdder(); // time counting
+    private LongAdder buildNanos = new LongAdder(); // time building
+    private LongAdder encodeNanos = new LongAdder(); // time encoding
+    private LongAdder flushNanos = new LongAdder(); // time writing out
+    private LongAdder bytesDecoded = new LongAdder(); // bytes decompressed
+    private LongAdder decodeNanos = new LongAdder(); // time decoding
+
+    /**
+     * Record counting the frequencies of some input
+     *
+     * @param bytes the number of bytes counted
+     * @param nanos the time taken
+     */
+    public void recordHistogram(long bytes, long nanos) {
+        bytesIn.add(bytes);
+        histogramNanos.add(nanos);
+    }
+
+    /**
+     * Record building a tree
+     *
+     * @param tree  the tree built
+     * @param freq  the frequencies it was built from, which are the symbols it
+     *              codes
+     * @param nanos the time taken
+     */
+    public void recordBuild(HCTree tree, int[] freq, long nanos) {
+        long[] counts = new long[NUM_CHARS];
+        for (int i = 0; i < NUM_CHARS; i++) {counts[i] = freq[i];}
+        recordBuild(tree, counts, nanos);
+    }
+
+    /**
+     * Record building a tree that codes the given counts, which may be larger
+     * than the (scaled down) frequencies it was built from
+     *
+     * @param tree   the tree built
+     * @param counts the number of times it codes each symbol
+     * @param nanos  the time taken
+     */
+    public void recordBuild(HCTree tree, long[] counts, long nanos) {
+        long total = 0;
+        for (int i = 0; i < NUM_CHARS; i++) {total += counts[i];}
+        long bits = 0;
+        double entropy = 0;
+        int depth = 0;
+        for (int i = 0; i < NUM_CHARS; i++) {
+            if (counts[i] == 0) {continue;}
+            int len = tree.getCodeLength((byte) i);
+            bits += counts[i] * len;
+            entropy += counts[i] * (Math.log((double) total / counts[i]) / Math.log(2));
+            depth = Math.max(depth, len);
+        }
+        symbols.add(total);
+        codeBits.add(bits);
+        entropyBits.add(entropy);
+        trees.increment();
+        depthSum.add(total * depth);
+        maxCodeLength.accumulateAndGet(depth, Math::max);
+        buildNanos.add(nanos);
+    }
+
+    /**
+     * Record encoding symbols
+     *
+     * @param nanos the time taken
+     */
+    public void recordEncode(long nanos) {
+        encodeNanos.add(nanos);
+    }
+
+    /**
+     * Record writing compressed bytes out
+     *
+     * @param bytes the number of bytes written
+     * @param nanos the time taken
+     */
+    public void recordFlush(long bytes, long nanos) {
+        bytesOut.add(bytes);
+        flushNanos.add(nanos);
+    }
+
+    /**
+     * Record decoding
+     *
+     * @param bytes the number of bytes decoded
+     * @param nanos the time taken
+     */
+    public void recordDecode(long bytes, long nanos) {
+        bytesDecoded.add(bytes);
+        decodeNanos.add(nanos);
+    }
+
+    /**
+     * Register these stats with the platform MBean server
+     *
+     * @param name the name of the stats, unique among registered stats
+     * @return the name the stats are registered under
+     * @throws JMException if the name is taken or registration fails
+     */
+    public ObjectName register(String name) throws JMException {
+        ObjectName objectName =
+                new ObjectName(DOMAIN + ":type=HCStats,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    /**
+     * Returns the number of uncompressed bytes compressed
+     *
+     * @return bytes in
+     */
+    @Override
+    public long getBytesIn() {
+        return bytesIn.sum();
+    }
+
+    /**
+     * Returns the number of compressed bytes written, headers included
+     *
+     * @return bytes out
+     */
+    @Override
+    public long getBytesOut() {
+        return bytesOut.sum();
+    }
+
+    /**
+     * Returns bytes out divided by bytes in
+     *
+     * @return the compression ratio, 0 before anything was compressed
+     */
+    @Override
+    public double getCompressionRatio() {
+        long in = bytesIn.sum();
+        return in == 0 ? 0 : (double) bytesOut.sum() / in;
+    }
+
+    /**
+     * Returns the average code length of the symbols compressed, headers
+     * excluded
+     *
+     * @return achieved bits per symbol
+     */
+    @Override
+    public double getBitsPerSymbol() {
+        long n = symbols.sum();
+        return n == 0 ? 0 : (double) codeBits.sum() / n;
+    }
+
+    /**
+     * Returns the entropy of the symbols compressed, computed from the
+     * frequencies each tree was built from
+     *
+     * @return entropy in bits per symbol
+     */
+    @Override
+    public double getEntropyBitsPerSymbol() {
+        long n = symbols.sum();
+        return n == 0 ? 0 : entropyBits.sum() / n;
+    }
+
+    /**
+     * Returns the number of trees built
+     *
+     * @return number of trees
+     */
+    @Override
+    public long getTreesBuilt() {
+        return trees.sum();
+    }
+
+    /**
+     * Returns the average depth of the trees built, each weighted by the
+     * number of symbols it coded
+     *
+     * @return mean tree depth
+     */
+    @Override
+    public double getMeanTreeDepth() {
+        long n = symbols.sum();
+        return n == 0 ? 0 : (double) depthSum.sum() / n;
+    }
+
+    /**
+     * Returns the longest code of any tree built
+     *
+     * @return max code length in bits
+     */
+    @Override
+    public int getMaxCodeLength() {
+        return maxCodeLength.get();
+    }
+
+    /**
+     * Returns the time spent counting frequencies
+     *
+     * @return milliseconds
+     */
+    @Override
+    public double getHistogramMillis() {
+        return histogramNanos.sum() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Returns the time spent building trees and headers
+     *
+     * @return milliseconds
+     */
+    @Override
+    public double getBuildMillis() {
+        return buildNanos.sum() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Returns the time spent encoding symbols
+     *
+     * @return milliseconds
+     */
+    @Override
+    public double getEncodeMillis() {
+        return encodeNanos.sum() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Returns the time spent writing compressed bytes out
+     *
+     * @return milliseconds
+     */
+    @Override
+    public double getFlushMillis() {
+        return flushNanos.sum() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Returns the number of bytes decompressed
+     *
+     * @return decoded bytes
+     */
+    @Override
+    public long getBytesDecoded() {
+        return bytesDecoded.sum();
+    }
+
+    /**
+     * Returns the decoding throughput, summed over the time of every decoding
+     * thread
+     *
+     * @return MB decoded per second
+     */
+    @Override
+    public double getDecodeMBPerSecond() {
+        long nanos = decodeNanos.sum();
+        return nanos == 0 ? 0 : bytesDecoded.sum() / MB / (nanos / 1e9);
+    }
+
+    /**
+     * Sets every metric back to zero
+     */
+    @Override
+    public void reset() {
+        for (LongAdder adder : new LongAdder[] {bytesIn, bytesOut, symbols, codeBits, trees,
+                depthSum, histogramNanos, buildNanos, encodeNanos, flushNanos, bytesDecoded,
+                decodeNanos}) {
+            adder.reset();
+        }
+        entropyBits.reset();
+        maxCodeLength.set(0);
+    }
+
+    /**
+     * Returns a one-line summary of the metrics
+     *
+     * @return the summary
+     */
+    @Override
+    public String toString() {
+        return String.format("in=%d out=%d ratio=%.3f bits/symbol=%.3f entropy=%.3f trees=%d "
+                        + "maxCodeLength=%d histogram=%.1fms build=%.1fms encode=%.1fms "
+                        + "flush=%.1fms decode=%.1fMB/s",
+                getBytesIn(), getBytesOut(), getCompressionRatio(), getBitsPerSymbol(),
+                getEntropyBitsPerSymbol(), getTreesBuilt(), getMaxCodeLength(),
+                getHistogramMillis(), getBuildMillis(), getEncodeMillis(), getFlushMillis(),
+                getDecodeMBPerSecond());
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Name: Xiaotong Zuo
+ * PID: A15445495
+ */
+
+/**
+ * Management interface of HCStats, exposing compression metrics over JMX
+ */
+public interface HCStatsMXBean {
+
+    /**
+     * Returns the number of uncompressed bytes compressed
+     *
+     * @return bytes in
+     */
+    long getBytesIn();
+
+    /**
+     * Returns the number of compressed bytes written, headers included
+     *
+     * @return bytes out
+     */
+    long getBytesOut();
+
+    /**
+     * Returns bytes out divided by bytes in
+     *
+     * @return the compression ratio, 0 before anything was compressed
+     */
+    double getCompressionRatio();
+
+    /**
+     * Returns the average code length of the symbols compressed, headers
+     * excluded
+     *
+     * @return achieved bits per symbol
+     */
+    double getBitsPerSymbol();
+
+    /**
+     * Returns the entropy of the symbols compressed, computed from the
+     * frequencies each tree was built from
+     *
+     * @return entropy in bits per symbol
+     */
+    double getEntropyBitsPerSymbol();
+
+    /**
+     * Returns the number of trees built
+     *
+     * @return number of trees
+     */
+    long getTreesBuilt();
+
+    /**
+     * Returns the average depth of the trees built, each weighted by the
+     * number of symbols it coded
+     *
+     * @return mean tree depth
+     */
+    double getMeanTreeDepth();
+
+    /**
+     * Returns the longest code of any tree built
+     *
+     * @return max code length in bits
+     */
+    int getMaxCodeLength();
+
+    /**
+     * Returns the time spent counting frequencies
+     *
+     * @return milliseconds
+     */
+    double getHistogramMillis();
+
+    /**
+     * Returns the time spent building trees and headers
+     *
+     * @return milliseconds
+     */
+    double getBuildMillis();
+
+    /**
+     * Returns the time spent encoding symbols
+     *
+     * @return milliseconds
+     */
+    double getEncodeMillis();
+
+    /**
+     * Returns the time spent writing compressed bytes out
+     *
+     * @return milliseconds
+     */
+    double getFlushMillis();
+
+    /**
+     * Returns the number of bytes decompressed
+     *
+     * @return decoded bytes
+     */
+    long getBytesDecoded();
+
+    /**
+     * Returns the decoding throughput, summed over the time of every decoding
+     * thread
+     *
+     * @return MB decoded per second
+     */
+    double getDecodeMBPerSecond();
+
+    /**
+     * Sets every metric back to zero
+     */
+    void reset();
+}
@@ -0,0 +1,403 @@
+/*
+ * Name: Xiaotong Zuo
+ * PID: A15445495
+ */
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of built Huffman tables for compressing many small, similar
+ * messages. Encoder tables are keyed by a coarse frequency signature (the
+ * log4 bucket of every symbol's share of the message in sixteenths, with
+ * absent and rare symbols in the same bucket), so messages with similar
+ * statistics share a table and its serialized header. A cached table is
+ * rebuilt to also code the symbols of a message it lacks, so it covers every
+ * symbol seen under its signature. Decoder tables are keyed by the header
+ * bytes. Both caches drop their least recently used table once they hold
+ * capacity tables.
+ *
+ * Pre-shared dictionary tables can be registered under ids 0 to 254 on both
+ * sides; a message coded with one only carries the id instead of a header.
+ *
+ * Message format: the dictionary id, or EMBEDDED followed by the length of
+ * the canonical header (at most 162 bytes, so one byte) and the header; then
+ * the message length as a varint and the encoded bits.
+ */
+public class HCTableCache {
+    // default number of tables per cache
+    public static final int DEFAULT_CAPACITY = 1024;
+    // marks a message carrying its own header
+    private static final int EMBEDDED = 0xff;
+    // alphabet size of extended ASCII
+    private static final int NUM_CHARS = 256;
+    // shares are measured in units of 1/SCALE of the message
+    private static final int SCALE = 1 << 4;
+
+    private LinkedHashMap<ByteBuffer, Table> encoders; // keyed by signature
+    private LinkedHashMap<ByteBuffer, Table> decoders; // keyed by header bytes
+    private Table[] dictionaries = new Table[EMBEDDED]; // pre-shared tables
+    private long hits; // number of lookups served from a cache
+    private long misses; // number of lookups that built a table
+
+    /**
+     * A built tree with its serialized canonical header
+     */
+    private static class Table {
+
+        HCTree tree; // the tree, with canonical codes
+        byte[] header; // the canonical header padded to a byte boundary
+
+        /**
+         * Initializes a table from a tree, switching it to canonical codes
+         *
+         * @param tree the tree
+         * @throws IOException never for an in-memory header
+         */
+        Table(HCTree tree) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            BitOutputStream out = new BitOutputStream(bytes);
+            tree.writeCanonicalHeader(out);
+            out.flush();
+            this.tree = tree;
+            this.header = bytes.toByteArray();
+        }
+
+        /**
+         * Initializes a table from a header it was read from
+         *
+         * @param tree   the tree
+         * @param header the header
+         */
+        Table(HCTree tree, byte[] header) {
+            this.tree = tree;
+            this.header = header;
+        }
+    }
+
+    /**
+     * Initializes caches holding DEFAULT_CAPACITY tables each
+     */
+    public HCTableCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Initializes caches holding a given number of tables each
+     *
+     * @param capacity the number of tables per cache
+     * @throws IllegalArgumentException if capacity is less than one
+     */
+    public HCTableCache(int capacity) throws IllegalArgumentException {
+        if (capacity < 1) {throw new IllegalArgumentException();}
+        encoders = lru(capacity);
+        decoders = lru(capacity);
+    }
+
+    /**
+     * Register a pre-shared table built from sample frequencies. Every symbol
+     * gets a code, so the table can code any message. Encoder and decoder
+     * must register the same samples under the same id.
+     *
+     * @param id         the id of the table, between 0 and 254
+     * @param sampleFreq frequencies of each symbol in the sample data
+     * @throws IllegalArgumentException if id is out of range
+     */
+    public synchronized void registerDictionary(int id, int[] sampleFreq)
+            throws IllegalArgumentException {
+        if (id < 0 || id >= EMBEDDED) {throw new IllegalArgumentException();}
+        int[] freq = new int[NUM_CHARS];
+        for (int i = 0; i < NUM_CHARS; i++) {
+            int sample = i < sampleFreq.length ? Math.min(sampleFreq[i], Integer.MAX_VALUE - 1) : 0;
+            freq[i] = sample + 1;
+        }
+        HCTree tree = new HCTree();
+        tree.buildTree(freq, HCTree.DEFAULT_MAX_CODE_LEN);
+        try {
+            dictionaries[id] = new Table(tree);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the table coding messages with the given frequencies, building
+     * it only if no message with the same signature was seen recently or its
+     * table lacks a symbol of this message
+     *
+     * @param freq frequencies of each symbol in the message
+     * @return a tree coding every symbol with a nonzero frequency
+     */
+    public HCTree get(int[] freq) {
+        return encoder(freq).tree;
+    }
+
+    /**
+     * Compress a message with the cheapest of the registered dictionaries and
+     * its cached table
+     *
+     * @param src the message
+     * @return the compressed message
+     * @throws IOException if encoding fails
+     */
+    public byte[] compress(byte[] src) throws IOException {
+        int[] freq = FrequencyCounter.count(src);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(src.length / 2 + 16);
+        DataOutputStream out = new DataOutputStream(bytes);
+        Table table = null;
+        if (src.length > 0) {
+            table = encoder(freq);
+            long bestBits = cost(table.tree, freq) + 8L * table.header.length;
+            int bestId = EMBEDDED;
+            for (int id = 0; id < EMBEDDED; id++) {
+                Table dict = dictionary(id);
+                if (dict == null) {continue;}
+                long bits = cost(dict.tree, freq);
+                if (bits < bestBits) {
+                    bestBits = bits;
+                    bestId = id;
+                    table = dict;
+                }
+            }
+            out.writeByte(bestId);
+            if (bestId == EMBEDDED) {
+                out.writeByte(table.header.length);
+                out.write(table.header);
+            }
+        } else {
+            out.writeByte(EMBEDDED);
+            out.writeByte(0);
+        }
+        writeVarInt(out, src.length);
+        BitOutputStream bitOut = new BitOutputStream(out, 64);
+        for (byte b : src) {table.tree.encode(b, bitOut);}
+        bitOut.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decompress a message written by compress
+     *
+     * @param src the compressed message
+     * @return the message
+     * @throws IOException if the message is malformed or uses an unknown
+     *                     dictionary
+     */
+    public byte[] decompress(byte[] src) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(src);
+        if (in.remaining() < 2) {throw new EOFException();}
+        int id = in.get() & 0xff;
+        Table table;
+        if (id == EMBEDDED) {
+            int headerLen = in.get() & 0xff;
+            if (headerLen > in.remaining()) {throw new IOException("Malformed header length");}
+            ByteBuffer header = in.slice().limit(headerLen);
+            in.position(in.position() + headerLen);
+            table = headerLen == 0 ? null : decoder(header);
+        } else {
+            table = dictionary(id);
+            if (table == null) {throw new IOException("Unknown dictionary " + id);}
+        }
+        int len = readVarInt(in);
+        if (len < 0) {throw new IOException("Malformed length");}
+        if (len == 0) {return new byte[0];}
+        if (table == null) {throw new IOException("Missing header");}
+        // every symbol takes at least one bit unless the tree holds a single symbol
+        if (HCDecodeTable.length(table.tree.lookup(0)) > 0 && len > 8L * in.remaining()) {
+            throw new EOFException();
+        }
+        byte[] dst = new byte[len];
+        BitInputStream bitIn = new BitInputStream(in);
+        for (int i = 0; i < len; i++) {dst[i] = table.tree.decode(bitIn);}
+        return dst;
+    }
+
+    /**
+     * Returns the number of lookups served from a cache
+     *
+     * @return number of cache hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups that had to build a table
+     *
+     * @return number of cache misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Helper method that returns the cached table for a frequency signature
+     *
+     * @param freq frequencies of each symbol in the message
+     * @return the encoder table
+     */
+    private Table encoder(int[] freq) {
+        long total = 0;
+        for (int i = 0; i < NUM_CHARS; i++) {total += freq[i];}
+        // bucket b > 0 means a share of 4^(b-1) to 4^b - 1 units; absent
+        // symbols and symbols rarer than one unit share bucket 0
+        byte[] signature = new byte[NUM_CHARS];
+        for (int i = 0; i < NUM_CHARS; i++) {
+            long share = (long) freq[i] * SCALE / total;
+            signature[i] = (byte) ((65 - Long.numberOfLeadingZeros(share)) / 2);
+        }
+        ByteBuffer key = ByteBuffer.wrap(signature);
+        Table cached;
+        synchronized (this) {
+            cached = encoders.get(key);
+            if (cached != null && covers(cached.tree, freq)) {
+                hits++;
+                return cached;
+            }
+            misses++;
+        }
+        // code every symbol of this message and every symbol the cached table
+        // codes, so the table for a signature only ever widens
+        int[] representative = new int[NUM_CHARS];
+        for (int i = 0; i < NUM_CHARS; i++) {
+            if (freq[i] != 0 || (cached != null && cached.tree.getCodeLength((byte) i) > 0)) {
+                representative[i] = Math.max(1, freq[i]);
+            }
+        }
+        HCTree tree = new HCTree();
+        tree.buildTree(representative, HCTree.DEFAULT_MAX_CODE_LEN);
+        Table table;
+        try {
+            table = new Table(tree);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        synchronized (this) {
+            encoders.put(key, table);
+        }
+        return table;
+    }
+
+    /**
+     * Helper method that returns whether a tree codes every symbol of a
+     * message
+     *
+     * @param tree the tree
+     * @param freq frequencies of each symbol in the message
+     * @return true if no symbol of the message lacks a code
+     */
+    private static boolean covers(HCTree tree, int[] freq) {
+        for (int i = 0; i < NUM_CHARS; i++) {
+            if (freq[i] != 0 && tree.getCodeLength((byte) i) == 0) {return false;}
+        }
+        return true;
+    }
+
+    /**
+     * Helper method that returns the cached table for a header
+     *
+     * @param header the canonical header
+     * @return the decoder table
+     * @throws IOException if the header is malformed
+     */
+    private Table decoder(ByteBuffer header) throws IOException {
+        byte[] bytes = new byte[header.remaining()];
+        header.get(bytes);
+        ByteBuffer key = ByteBuffer.wrap(bytes);
+        synchronized (this) {
+            Table table = decoders.get(key);
+            if (table != null) {
+                hits++;
+                return table;
+            }
+            misses++;
+        }
+        HCTree tree = new HCTree();
+        tree.readCanonicalHeader(new BitInputStream(ByteBuffer.wrap(bytes)));
+        Table table = new Table(tree, bytes);
+        synchronized (this) {
+            decoders.put(key, table);
+        }
+        return table;
+    }
+
+    /**
+     * Helper method that returns a registered dictionary
+     *
+     * @param id the id of the dictionary
+     * @return the table, or null if none is registered under id
+     */
+    private synchronized Table dictionary(int id) {
+        return dictionaries[id];
+    }
+
+    /**
+     * Helper method for the number of bits a tree codes a message in
+     *
+     * @param tree the tree
+     * @param freq frequencies of each symbol in the message
+     * @return the number of bits, or Long.MAX_VALUE if a symbol has no code
+     */
+    private static long cost(HCTree tree, int[] freq) {
+        long bits = 0;
+        for (int i = 0; i < NUM_CHARS; i++) {
+            if (freq[i] == 0) {continue;}
+            int len = tree.getCodeLength((byte) i);
+            if (len == 0) {return Long.MAX_VALUE;}
+            bits += (long) freq[i] * len;
+        }
+        return bits;
+    }
+
+    /**
+     * Helper method that creates an access-ordered map dropping its least
+     * recently used entry past a capacity
+     *
+     * @param capacity the number of entries to keep
+     * @return the map
+     */
+    private static LinkedHashMap<ByteBuffer, Table> lru(int capacity) {
+        return new LinkedHashMap<ByteBuffer, Table>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ByteBuffer, Table> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Helper method that writes an int in 7-bit groups, low group first
+     *
+     * @param out   the output stream
+     * @param value the int to write, not negative
+     * @throws IOException if writing fails
+     */
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Helper method that reads an int written by writeVarInt
+     *
+     * @param in the input buffer
+     * @return the int
+     * @throws IOException if the int is malformed
+     */
+    private static int readVarInt(ByteBuffer in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            if (!in.hasRemaining()) {throw new EOFException();}
+            int b = in.get() & 0xff;
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {return value;}
+        }
+        throw new IOException("Malformed length");
+    }
+
+}
@@ -4,8 +4,8 @@
  */
 
 import java.io.*;
+import java.util.Arrays;
 import java.util.Stack;
-import java.util.PriorityQueue;
 
 /**
  * The Huffman Coding Tree
@@ -15,11 +15,40 @@ public class HCTree {
     private static final int NUM_CHARS = 256;
     // number of bits in a bytef
     private static final int BYTE_BITS = 8;
+    // code length limit used by the compressors built on HCTree
+    public static final int DEFAULT_MAX_CODE_LEN = 15;
+    // number of bits holding a code length in a canonical header
+    private static final int LEN_BITS = 6;
+    // longest code a long (and a canonical header) can hold
+    private static final int MAX_LONG_CODE_LEN = (1 << LEN_BITS) - 1;
+    // number of bits holding the width of the lengths of a flat header
+    private static final int WIDTH_BITS = 3;
+    // number of bits holding the order of the gap code of a header
+    private static final int ORDER_BITS = 3;
+    // code length the first length of a delta coded header is relative to
+    private static final int FIRST_LEN = 4;
 
     // the root of HCTree
     private HCNode root;
     // the leaves of HCTree that contain all the symbols
     private HCNode[] leaves = new HCNode[NUM_CHARS];
+    // the code of each symbol, right-aligned, most significant bit first
+    private long[] codes = new long[NUM_CHARS];
+    // the length in bits of the code of each symbol (0 if absent)
+    private byte[] codeLens = new byte[NUM_CHARS];
+    // the lookup table used for decoding several bits at a time, null until
+    // the first lookup
+    private volatile HCDecodeTable decodeTable;
+    // whether a code is too long for an HCDecodeTable, so lookups walk the tree
+    private boolean longCodes;
+    // the symbol of a tree that holds only one symbol, -1 otherwise
+    private int singleSymbol = -1;
+    // the frequency of each symbol given to buildTree
+    private int[] freqs = new int[NUM_CHARS];
+    // whether the HCNodes still have to be created from the code table
+    private boolean nodesPending;
+    // whether the codes are already canonical
+    private boolean canonical;
 
     /**
      * The Huffman Coding Node
@@ -170,6 +199,7 @@ public class HCTree {
      * @return root node
      */
     public HCNode getRoot() {
+        if (nodesPending) {buildNodes();}
         return root;
     }
 
@@ -180,32 +210,485 @@ public class HCTree {
      */
     public void setRoot(HCNode root) {
         this.root = root;
+        nodesPending = false;
+        buildCodeTable();
     }
 
     /**
-     * Build a HCTree based on the given frequency array
+     * Build a HCTree based on the given frequency array. The symbols are sorted
+     * by frequency once and merged with the two-queue method: merged nodes are
+     * created in nondecreasing weight order, so the two lightest nodes are
+     * always at the front of the sorted leaves or of the merged nodes. The
+     * nodes live in flat arrays, and HCNodes are only created if getRoot is
+     * called.
      *
      * @param freq list of frequencies of each symbol
      */
     public void buildTree(int[] freq) {
-        PriorityQueue<HCNode> pQueue = new PriorityQueue<>();
-        for (int i=0; i < freq.length; i++) {
-            if (freq[i] != 0){
-                leaves[i] = new HCNode((byte)i, freq[i]);
-                pQueue.offer(leaves[i]);
+        freqs = Arrays.copyOf(freq, NUM_CHARS);
+        long[] sorted = new long[NUM_CHARS];
+        int n = 0;
+        for (int i = 0; i < NUM_CHARS; i++) {
+            if (freqs[i] != 0) {sorted[n++] = ((long) freqs[i] << BYTE_BITS) | i;}
+        }
+        Arrays.sort(sorted, 0, n);
+        root = null;
+        leaves = new HCNode[NUM_CHARS];
+        nodesPending = n > 0;
+        singleSymbol = n == 1 ? (int) (sorted[0] & 0xff) : -1;
+        codes = new long[NUM_CHARS];
+        codeLens = new byte[NUM_CHARS];
+        canonical = false;
+
+        if (n >= 2) {
+            // nodes 0 to n-1 are the sorted leaves, the rest are merged nodes
+            int total = 2 * n - 1;
+            long[] weight = new long[total];
+            int[] left = new int[total];
+            int[] right = new int[total];
+            int[] parent = new int[total];
+            for (int i = 0; i < n; i++) {
+                weight[i] = sorted[i] >>> BYTE_BITS;
+                left[i] = -1;
+                right[i] = -1;
+            }
+            int leaf = 0;
+            int merged = n;
+            for (int next = n; next < total; next++) {
+                int c0 = (leaf < n && (merged == next || weight[leaf] <= weight[merged])) ? leaf++ : merged++;
+                int c1 = (leaf < n && (merged == next || weight[leaf] <= weight[merged])) ? leaf++ : merged++;
+                weight[next] = weight[c0] + weight[c1];
+                left[next] = c0;
+                right[next] = c1;
+                parent[c0] = next;
+                parent[c1] = next;
+            }
+            // every node comes after its children and the root comes last, so
+            // one backward pass assigns the codes top down
+            long[] path = new long[total];
+            int[] depth = new int[total];
+            for (int i = total - 2; i >= 0; i--) {
+                int p = parent[i];
+                depth[i] = depth[p] + 1;
+                path[i] = (path[p] << 1) | (right[p] == i ? 1 : 0);
+            }
+            for (int i = 0; i < n; i++) {
+                int symbol = (int) (sorted[i] & 0xff);
+                codes[symbol] = path[i];
+                codeLens[symbol] = (byte) depth[i];
+            }
+        }
+        resetDecodeTable();
+    }
+
+    /**
+     * Build a HCTree based on the given frequency array whose codes are no
+     * longer than the given limit. The code lengths are the optimal ones under
+     * the limit (computed with package-merge), and the codes are canonical.
+     *
+     * @param freq          list of frequencies of each symbol
+     * @param maxCodeLength the longest code allowed
+     * @throws IllegalArgumentException if maxCodeLength is out of range or too
+     *                                  small to give every symbol a code
+     */
+    public void buildTree(int[] freq, int maxCodeLength) throws IllegalArgumentException {
+        if (maxCodeLength < 1 || maxCodeLength > HCDecodeTable.MAX_CODE_LEN) {
+            throw new IllegalArgumentException();
+        }
+        // pad or cut to the alphabet, like the unlimited build
+        freq = Arrays.copyOf(freq, NUM_CHARS);
+        byte[] lens = limitedCodeLengths(freq, maxCodeLength);
+        int count = 0;
+        for (int i = 0; i < NUM_CHARS; i++) {
+            if (freq[i] != 0) {count++;}
+        }
+        if (count < 2) {
+            buildTree(freq);
+            return;
+        }
+        freqs = freq;
+        codeLens = lens;
+        singleSymbol = -1;
+        canonical = false;
+        useCanonicalCodes();
+    }
+
+    /**
+     * Compute optimal code lengths no longer than the given limit with the
+     * package-merge algorithm. Level maxLen lists the symbols by frequency;
+     * every level above it merges the symbols with the pairs ("packages") of
+     * the level below. The first 2n-2 items of level 1 are picked, and every
+     * time a symbol appears in a picked item (directly or inside a package),
+     * its code gets one bit longer.
+     *
+     * @param freq   list of frequencies of each symbol, at most 65536 symbols
+     * @param maxLen the longest code allowed
+     * @return the code length of each symbol, 0 for absent symbols and for the
+     *         symbol of a one-symbol alphabet
+     * @throws IllegalArgumentException if maxLen is too small to give every
+     *                                  symbol a code
+     */
+    static byte[] limitedCodeLengths(int[] freq, int maxLen) throws IllegalArgumentException {
+        byte[] lens = new byte[freq.length];
+        // sort the symbols by frequency, keeping the symbol in the low bits
+        long[] sorted = new long[freq.length];
+        int n = 0;
+        for (int i = 0; i < freq.length; i++) {
+            if (freq[i] != 0) {sorted[n++] = ((long) freq[i] << 16) | i;}
+        }
+        if (n < 2) {return lens;}
+        if (maxLen < 31 && n > 1 << maxLen) {throw new IllegalArgumentException();}
+        sorted = Arrays.copyOf(sorted, n);
+        Arrays.sort(sorted);
+        long[] leafWeights = new long[n];
+        for (int i = 0; i < n; i++) {leafWeights[i] = sorted[i] >>> 16;}
+
+        // items[d] lists level d: the index of a symbol, or -1 for a package
+        int[][] items = new int[maxLen + 1][];
+        items[maxLen] = new int[n];
+        for (int i = 0; i < n; i++) {items[maxLen][i] = i;}
+        long[] weights = leafWeights;
+        for (int d = maxLen - 1; d >= 1; d--) {
+            int packages = weights.length / 2;
+            long[] merged = new long[n + packages];
+            items[d] = new int[n + packages];
+            int leaf = 0;
+            int pkg = 0;
+            for (int i = 0; i < merged.length; i++) {
+                long pkgWeight = pkg < packages ? weights[2 * pkg] + weights[2 * pkg + 1] : Long.MAX_VALUE;
+                if (leaf < n && leafWeights[leaf] <= pkgWeight) {
+                    merged[i] = leafWeights[leaf];
+                    items[d][i] = leaf++;
+                } else {
+                    merged[i] = pkgWeight;
+                    items[d][i] = -1;
+                    pkg++;
+                }
+            }
+            weights = merged;
+        }
+
+        // the picked items of each level are a prefix of it, and the packages
+        // among them are made of a prefix twice as long of the level below
+        int picked = 2 * n - 2;
+        for (int d = 1; d <= maxLen && picked > 0; d++) {
+            int packages = 0;
+            for (int i = 0; i < picked; i++) {
+                if (items[d][i] >= 0) {
+                    lens[(int) (sorted[items[d][i]] & 0xffff)]++;
+                } else {
+                    packages++;
+                }
+            }
+            picked = 2 * packages;
+        }
+        return lens;
+    }
+
+    /**
+     * Build the per-symbol code table from the current tree, so that encode
+     * does not need to walk the tree for every symbol
+     */
+    private void buildCodeTable() {
+        codes = new long[NUM_CHARS];
+        codeLens = new byte[NUM_CHARS];
+        if (root != null) {buildCodeTable(root, 0L, 0);}
+        singleSymbol = (root != null && root.isLeaf()) ? root.getSymbol() & 0xff : -1;
+        canonical = false;
+        resetDecodeTable();
+    }
+
+    /**
+     * Helper method that records the code of every leaf under the given node
+     *
+     * @param node  the node to start the traversal
+     * @param path  the code of the given node
+     * @param depth the depth of the given node
+     */
+    private void buildCodeTable(HCNode node, long path, int depth) {
+        if (node.isLeaf()) {
+            codes[node.getSymbol() & 0xff] = path;
+            codeLens[node.getSymbol() & 0xff] = (byte) depth;
+        } else {
+            buildCodeTable(node.getC0(), path << 1, depth + 1);
+            buildCodeTable(node.getC1(), (path << 1) | 1, depth + 1);
+        }
+    }
+
+    /**
+     * Switch this tree to canonical codes. Every symbol keeps its code length,
+     * so the compression is unchanged, but the codes can be rebuilt from the
+     * lengths alone: shorter codes come first, and codes of the same length
+     * are consecutive in symbol order. Nothing is done if the codes already
+     * are canonical.
+     */
+    public void useCanonicalCodes() {
+        if (canonical) {return;}
+        canonical = true;
+        assignCanonicalCodes();
+        root = null;
+        leaves = new HCNode[NUM_CHARS];
+        nodesPending = true;
+        resetDecodeTable();
+    }
+
+    /**
+     * Helper method that creates the HCNodes matching the code table
+     */
+    private void buildNodes() {
+        nodesPending = false;
+        root = null;
+        leaves = new HCNode[NUM_CHARS];
+        for (int i = 0; i < NUM_CHARS; i++) {
+            if (codeLens[i] == 0 && singleSymbol != i) {continue;}
+            leaves[i] = new HCNode((byte) i, freqs[i]);
+            if (root == null) {root = codeLens[i] == 0 ? leaves[i] : new HCNode((byte) i, 0);}
+            HCNode curNode = root;
+            for (int bit = codeLens[i] - 1; bit >= 0; bit--) {
+                curNode.setFreq(curNode.getFreq() + freqs[i]);
+                boolean one = ((codes[i] >>> bit) & 1) == 1;
+                HCNode child = one ? curNode.getC1() : curNode.getC0();
+                if (child == null) {
+                    child = bit == 0 ? leaves[i] : new HCNode((byte) i, 0);
+                    child.setParent(curNode);
+                    if (one) {curNode.setC1(child);} else {curNode.setC0(child);}
+                }
+                curNode = child;
             }
         }
-        while (!(pQueue.size()==1)) {
-            HCNode node0 = pQueue.poll();
-            HCNode node1 = pQueue.poll();
-            HCNode newNode = new HCNode(node1.getSymbol(),node0.getFreq()+node1.getFreq());
-            newNode.setC0(node0);
-            newNode.setC1(node1);
-            node0.setParent(newNode);
-            node1.setParent(newNode);
-            pQueue.offer(newNode);
-        }
-        root = pQueue.peek();
+    }
+
+    /**
+     * Write a canonical header to the given stream. The header holds only the
+     * code length of every symbol, so this tree is switched to canonical codes
+     * first (see useCanonicalCodes).
+     *
+     * The header starts with a bit that is set for a one-symbol tree, followed
+     * by the symbol (8 bits). Otherwise a mode bit follows, then for every
+     * present symbol in order the gap since the previous one (Elias gamma code
+     * of gap + 1) and its code length. Delta mode (0) codes each length
+     * relative to the previous one: 0 for the same length, 10 and a sign bit
+     * for one longer or shorter, 11 and 6 bits otherwise. Flat mode (1) gives
+     * the width of the lengths (3 bits) and then writes them plainly. The
+     * cheaper mode is used. The list ends once the code lengths fill the code
+     * space, so no symbol count is written.
+     *
+     * @param out the output stream
+     * @throws IOException if writing fails
+     */
+    public void writeCanonicalHeader(BitOutputStream out) throws IOException {
+        useCanonicalCodes();
+        if (singleSymbol >= 0) {
+            out.writeBit(1);
+            out.writeByte((byte) singleSymbol);
+            return;
+        }
+        out.writeBit(0);
+        int maxLen = 0;
+        for (int i = 0; i < NUM_CHARS; i++) {maxLen = Math.max(maxLen, codeLens[i]);}
+        int width = 32 - Integer.numberOfLeadingZeros(maxLen);
+        long deltaBits = 0;
+        long flatBits = WIDTH_BITS;
+        long[] gapBits = new long[1 << ORDER_BITS];
+        int last = -1;
+        int prev = FIRST_LEN;
+        for (int i = 0; i < NUM_CHARS; i++) {
+            if (codeLens[i] == 0) {continue;}
+            deltaBits += deltaLengthBits(codeLens[i], prev);
+            flatBits += width;
+            for (int k = 0; k < gapBits.length; k++) {gapBits[k] += gapBits(i - last - 1, k);}
+            last = i;
+            prev = codeLens[i];
+        }
+        int order = 0;
+        for (int k = 1; k < gapBits.length; k++) {
+            if (gapBits[k] < gapBits[order]) {order = k;}
+        }
+        boolean flat = flatBits < deltaBits;
+        out.writeBits(order, ORDER_BITS);
+        out.writeBit(flat ? 1 : 0);
+        if (flat) {out.writeBits(width - 1, WIDTH_BITS);}
+        last = -1;
+        prev = FIRST_LEN;
+        for (int i = 0; i < NUM_CHARS; i++) {
+            if (codeLens[i] == 0) {continue;}
+            writeGap(out, i - last - 1, order);
+            if (flat) {
+                out.writeBits(codeLens[i], width);
+            } else {
+                writeDeltaLength(out, codeLens[i], prev);
+            }
+            last = i;
+            prev = codeLens[i];
+        }
+    }
+
+    /**
+     * Read a canonical header written by writeCanonicalHeader and set up the
+     * code and decode tables from it. No HCNode is created unless getRoot is
+     * called afterwards.
+     *
+     * @param in the input stream
+     * @throws IOException if reading fails or the header is malformed
+     */
+    public void readCanonicalHeader(BitInputStream in) throws IOException {
+        canonical = false;
+        root = null;
+        leaves = new HCNode[NUM_CHARS];
+        nodesPending = true;
+        freqs = new int[NUM_CHARS];
+        codeLens = new byte[NUM_CHARS];
+        singleSymbol = -1;
+        if (in.readBit() == 1) {
+            singleSymbol = in.readByte() & 0xff;
+        } else {
+            int order = in.readBits(ORDER_BITS);
+            boolean flat = in.readBit() == 1;
+            int width = flat ? in.readBits(WIDTH_BITS) + 1 : 0;
+            // the code space used so far, in units of 2^-MAX_LONG_CODE_LEN;
+            // a full code space is 2^63, the bits of Long.MIN_VALUE
+            long used = 0;
+            int symbol = -1;
+            int prev = FIRST_LEN;
+            while (used != Long.MIN_VALUE) {
+                symbol += readGap(in, order) + 1;
+                int len = flat ? in.readBits(width) : readDeltaLength(in, prev);
+                if (symbol >= NUM_CHARS || len < 1 || len > MAX_LONG_CODE_LEN) {
+                    throw new IOException("Malformed canonical header");
+                }
+                used += 1L << (MAX_LONG_CODE_LEN - len);
+                if (Long.compareUnsigned(used, Long.MIN_VALUE) > 0) {
+                    throw new IOException("Malformed canonical header");
+                }
+                codeLens[symbol] = (byte) len;
+                prev = len;
+            }
+        }
+        assignCanonicalCodes();
+        canonical = true;
+        resetDecodeTable();
+        // decoding starts right after the header, so build the table now
+        getDecodeTable();
+    }
+
+    /**
+     * Helper method that returns the size of a gap in the Exp-Golomb code of
+     * the given order
+     *
+     * @param gap   the gap, between 0 and 255
+     * @param order the order of the code
+     * @return the number of bits writeGap writes
+     */
+    private static int gapBits(int gap, int order) {
+        int bits = 32 - Integer.numberOfLeadingZeros((gap >>> order) + 1);
+        return 2 * bits - 1 + order;
+    }
+
+    /**
+     * Helper method that writes a gap in the Exp-Golomb code of the given
+     * order: the Elias gamma code of gap / 2^order + 1 (as many zeros as it
+     * has bits after the first, then the value), then the low order bits
+     *
+     * @param out   the output stream
+     * @param gap   the gap, between 0 and 255
+     * @param order the order of the code
+     * @throws IOException if writing fails
+     */
+    private static void writeGap(BitOutputStream out, int gap, int order) throws IOException {
+        int value = (gap >>> order) + 1;
+        int bits = 32 - Integer.numberOfLeadingZeros(value);
+        out.writeBits(0, bits - 1);
+        out.writeBits(value, bits);
+        out.writeBits(gap, order);
+    }
+
+    /**
+     * Helper method that reads a gap written by writeGap
+     *
+     * @param in    the input stream
+     * @param order the order of the code
+     * @return the gap
+     * @throws IOException if reading fails or the code is malformed
+     */
+    private static int readGap(BitInputStream in, int order) throws IOException {
+        int zeros = 0;
+        while (in.readBit() == 0) {
+            if (++zeros > BYTE_BITS) {throw new IOException("Malformed canonical header");}
+        }
+        int value = ((1 << zeros) | in.readBits(zeros)) - 1;
+        return (value << order) | in.readBits(order);
+    }
+
+    /**
+     * Helper method that returns the size of a length coded relative to the
+     * previous one
+     *
+     * @param len  the code length
+     * @param prev the previous code length
+     * @return the number of bits writeDeltaLength writes
+     */
+    private static int deltaLengthBits(int len, int prev) {
+        if (len == prev) {return 1;}
+        return Math.abs(len - prev) == 1 ? 3 : 2 + LEN_BITS;
+    }
+
+    /**
+     * Helper method that writes a length relative to the previous one
+     *
+     * @param out  the output stream
+     * @param len  the code length
+     * @param prev the previous code length
+     * @throws IOException if writing fails
+     */
+    private static void writeDeltaLength(BitOutputStream out, int len, int prev)
+            throws IOException {
+        if (len == prev) {
+            out.writeBit(0);
+        } else if (Math.abs(len - prev) == 1) {
+            out.writeBits(len > prev ? 0b100 : 0b101, 3);
+        } else {
+            out.writeBits(0b11, 2);
+            out.writeBits(len, LEN_BITS);
+        }
+    }
+
+    /**
+     * Helper method that reads a length written by writeDeltaLength
+     *
+     * @param in   the input stream
+     * @param prev the previous code length
+     * @return the code length
+     * @throws IOException if reading fails
+     */
+    private static int readDeltaLength(BitInputStream in, int prev) throws IOException {
+        if (in.readBit() == 0) {return prev;}
+        if (in.readBit() == 1) {return in.readBits(LEN_BITS);}
+        return in.readBit() == 0 ? prev + 1 : prev - 1;
+    }
+
+    /**
+     * Helper method that replaces the codes with canonical codes of the same
+     * lengths
+     */
+    private void assignCanonicalCodes() {
+        codes = new long[NUM_CHARS];
+        long code = 0;
+        for (int len = 1; len <= MAX_LONG_CODE_LEN; len++) {
+            for (int i = 0; i < NUM_CHARS; i++) {
+                if (codeLens[i] == len) {codes[i] = code++;}
+            }
+            code <<= 1;
+        }
+    }
+
+    /**
+     * Returns the length of the code of the given symbol
+     *
+     * @param symbol the symbol to look up
+     * @return the code length in bits, 0 if the symbol is not in the tree
+     */
+    public int getCodeLength(byte symbol) {
+        return codeLens[symbol & 0xff];
     }
 
     /**
@@ -217,19 +700,13 @@ public class HCTree {
      * @throws IOException
      */
     public void encode(byte symbol, BitOutputStream out) throws IOException {
-        String bits = "";
-        HCNode curNode = leaves[symbol & 0xff];
-        HCNode parentNode;
-        while (!(curNode == root)) {
-            parentNode = curNode.getParent();
-            if (parentNode.getC0() == curNode) {
-                bits = 0 + bits;
-            } else {bits = 1 + bits;}
-            curNode = parentNode;
-        }
-        for (int i=0; i < bits.length(); i++) {
-            out.writeBit(bits.charAt(i));
+        long code = codes[symbol & 0xff];
+        int len = codeLens[symbol & 0xff];
+        if (len > 32) {
+            out.writeBits((int) (code >>> 32), len - 32);
+            len = 32;
         }
+        out.writeBits((int) code, len);
     }
 
     /**
@@ -240,15 +717,74 @@ public class HCTree {
      * @throws IOException
      */
     public byte decode(BitInputStream in) throws IOException {
-        HCNode curNode = root;
-        while (!(curNode.isLeaf())) {
-            if (in.readBit() == 0) {
-                curNode = curNode.getC0();
+        int entry = lookup(in.peekWindow());
+        in.skipBits(HCDecodeTable.length(entry));
+        return (byte) HCDecodeTable.symbol(entry);
+    }
+
+    /**
+     * Decode the symbol at the start of the given window of bits with a single
+     * table lookup (plus one per second-level table for long codes). A tree
+     * with codes longer than HCDecodeTable.MAX_CODE_LEN is walked bit by bit
+     * instead; int frequencies keep every code shorter than the 57 valid bits
+     * of a window.
+     *
+     * @param window the next 64 bits of input, first bit in the sign bit
+     * @return the symbol in the low 8 bits and the code length above bit 16,
+     *         read with HCDecodeTable.symbol() and HCDecodeTable.length()
+     */
+    public int lookup(long window) {
+        if (singleSymbol >= 0) {return singleSymbol;}
+        HCDecodeTable table = getDecodeTable();
+        if (table == null) {return walk(window);}
+        return table.lookup(window);
+    }
+
+    /**
+     * Returns the lookup table used for decoding, building it on first use
+     *
+     * @return the decode table of this tree, or null if a code is longer than
+     *         HCDecodeTable.MAX_CODE_LEN
+     */
+    public HCDecodeTable getDecodeTable() {
+        HCDecodeTable table = decodeTable;
+        if (table == null && !longCodes) {
+            int maxLen = 0;
+            for (int i = 0; i < NUM_CHARS; i++) {maxLen = Math.max(maxLen, codeLens[i]);}
+            if (maxLen > HCDecodeTable.MAX_CODE_LEN) {
+                longCodes = true;
             } else {
-                curNode = curNode.getC1();
+                table = new HCDecodeTable(codes, codeLens);
+                decodeTable = table;
             }
         }
-        return curNode.getSymbol();
+        return table;
+    }
+
+    /**
+     * Helper method that drops the decode table after the codes changed, so
+     * the next lookup builds it again
+     */
+    private void resetDecodeTable() {
+        decodeTable = null;
+        longCodes = false;
+    }
+
+    /**
+     * Helper method that decodes the symbol at the start of a window by
+     * walking the tree
+     *
+     * @param window the next 64 bits of input, first bit in the sign bit
+     * @return the symbol and code length packed like an HCDecodeTable entry
+     */
+    private int walk(long window) {
+        HCNode curNode = getRoot();
+        int len = 0;
+        while (!curNode.isLeaf()) {
+            curNode = (window << len) < 0 ? curNode.getC1() : curNode.getC0();
+            len++;
+        }
+        return HCDecodeTable.leaf(curNode.getSymbol() & 0xff, len);
     }
 
     /**
@@ -290,7 +826,7 @@ public class HCTree {
             child1.setParent(curNode);
         } else {
             curNode.setSymbol(in.readByte());
-            leaves[curNode.getSymbol()] = curNode;
+            leaves[curNode.getSymbol() & 0xff] = curNode;
         }
         return curNode;
     }
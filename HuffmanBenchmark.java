@@ -0,0 +1,260 @@
+/*
+ * Name: Xiaotong Zuo
+ * PID: A15445495
+ */
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Benchmarks of the Huffman codec. Every operation runs over a fixed set of
+ * generated corpora: uniform random bytes, English-like text, highly skewed
+ * bytes and tiny payloads. After a warmup, each benchmark reports the time
+ * per operation, the throughput in MB/s of corpus processed, and the bytes
+ * allocated per operation and per second by the benchmark thread.
+ *
+ * Usage: java HuffmanBenchmark [warmup seconds] [measure seconds] [filter]
+ * where filter only runs the benchmarks whose name contains it.
+ */
+public class HuffmanBenchmark {
+    // default seconds of warmup per benchmark
+    private static final double WARMUP_SECONDS = 1;
+    // default seconds of measurement per benchmark
+    private static final double MEASURE_SECONDS = 2;
+    // size of the large corpora
+    private static final int LARGE_SIZE = 1 << 20;
+    // size of the tiny payloads
+    private static final int TINY_SIZE = 64;
+    // seed of the corpus generator, so every run sees the same data
+    private static final long SEED = 0x48435442L;
+    // bytes per megabyte
+    private static final double MB = 1 << 20;
+    // words the English-like corpus is drawn from, most frequent first
+    private static final String[] WORDS = {
+        "the", "of", "and", "to", "a", "in", "is", "that", "for", "it", "as", "was",
+        "with", "be", "by", "on", "not", "he", "this", "are", "or", "his", "from",
+        "at", "which", "but", "have", "an", "had", "they", "you", "were", "their",
+        "one", "all", "we", "can", "her", "has", "there", "been", "if", "more",
+        "when", "will", "would", "who", "so", "no", "tree", "code", "symbol",
+        "frequency", "stream", "compression", "priority", "queue", "heap", "node"
+    };
+
+    /**
+     * Operation measured by a benchmark
+     */
+    private interface Op {
+
+        /**
+         * Run the operation once
+         *
+         * @throws Exception if the operation fails
+         */
+        void run() throws Exception;
+    }
+
+    /**
+     * Run the benchmarks
+     *
+     * @param args warmup seconds, measure seconds and a name filter, all optional
+     * @throws Exception if a benchmark fails
+     */
+    public static void main(String[] args) throws Exception {
+        double warmup = args.length > 0 ? Double.parseDouble(args[0]) : WARMUP_SECONDS;
+        double measure = args.length > 1 ? Double.parseDouble(args[1]) : MEASURE_SECONDS;
+        String filter = args.length > 2 ? args[2] : "";
+
+        Random random = new Random(SEED);
+        Map<String, byte[]> corpora = new LinkedHashMap<>();
+        corpora.put("uniform", uniform(random, LARGE_SIZE));
+        corpora.put("english", english(random, LARGE_SIZE));
+        corpora.put("skewed", skewed(random, LARGE_SIZE));
+        corpora.put("tiny", english(random, TINY_SIZE));
+
+        System.out.printf("%-28s %12s %10s %12s %10s%n",
+                "benchmark", "us/op", "MB/s", "alloc B/op", "alloc MB/s");
+        Path dir = Files.createTempDirectory("hcbench");
+        try {
+            for (Map.Entry<String, byte[]> corpus : corpora.entrySet()) {
+                run(corpus.getKey(), corpus.getValue(), dir, warmup, measure, filter);
+            }
+        } finally {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+                for (Path file : files) {Files.delete(file);}
+            }
+            Files.delete(dir);
+        }
+    }
+
+    /**
+     * Helper method that runs every benchmark over one corpus
+     *
+     * @param name    the name of the corpus
+     * @param data    the corpus
+     * @param dir     directory for the files of the round trip
+     * @param warmup  seconds of warmup
+     * @param measure seconds of measurement
+     * @param filter  only benchmarks whose name contains it are run
+     * @throws Exception if a benchmark fails
+     */
+    private static void run(String name, byte[] data, Path dir, double warmup, double measure,
+                            String filter) throws Exception {
+        int[] freq = FrequencyCounter.count(data);
+        HCTree tree = new HCTree();
+        tree.buildTree(freq);
+
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream(data.length);
+        BitOutputStream encodedOut = new BitOutputStream(encoded);
+        for (byte b : data) {tree.encode(b, encodedOut);}
+        encodedOut.flush();
+        byte[] bits = encoded.toByteArray();
+
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        BitOutputStream serializedOut = new BitOutputStream(serialized);
+        tree.encodeHCTree(tree.getRoot(), serializedOut);
+        serializedOut.flush();
+        byte[] treeBits = serialized.toByteArray();
+
+        Path plain = dir.resolve(name + ".txt");
+        Path packed = dir.resolve(name + ".hc");
+        Path unpacked = dir.resolve(name + ".out");
+        Files.write(plain, data);
+
+        byte[] decoded = new byte[data.length];
+        BitInputStream check = new BitInputStream(new ByteArrayInputStream(bits));
+        for (int i = 0; i < decoded.length; i++) {decoded[i] = tree.decode(check);}
+        if (!Arrays.equals(decoded, data)) {
+            throw new IllegalStateException("Decode mismatch on " + name);
+        }
+        ByteArrayOutputStream sink = new ByteArrayOutputStream(data.length);
+
+        Map<String, Op> ops = new LinkedHashMap<>();
+        ops.put("buildTree", () -> new HCTree().buildTree(freq));
+        ops.put("encode", () -> {
+            sink.reset();
+            BitOutputStream out = new BitOutputStream(sink);
+            for (byte b : data) {tree.encode(b, out);}
+            out.flush();
+        });
+        ops.put("decode", () -> {
+            BitInputStream in = new BitInputStream(new ByteArrayInputStream(bits));
+            for (int i = 0; i < decoded.length; i++) {decoded[i] = tree.decode(in);}
+        });
+        ops.put("encodeHCTree", () -> {
+            sink.reset();
+            BitOutputStream out = new BitOutputStream(sink);
+            tree.encodeHCTree(tree.getRoot(), out);
+            out.flush();
+        });
+        ops.put("decodeHCTree", () -> new HCTree().decodeHCTree(
+                new BitInputStream(new ByteArrayInputStream(treeBits))));
+        ops.put("fileRoundTrip", () -> {
+            MappedCompressor.compress(plain, packed);
+            MappedCompressor.decompress(packed, unpacked);
+        });
+
+        for (Map.Entry<String, Op> op : ops.entrySet()) {
+            String label = op.getKey() + "/" + name;
+            if (!label.contains(filter)) {continue;}
+            // the tree operations do not touch the corpus, so have no MB/s
+            boolean perTree = op.getKey().equals("buildTree") || op.getKey().endsWith("HCTree");
+            measure(label, perTree ? 0 : data.length, op.getValue(), warmup, measure);
+        }
+    }
+
+    /**
+     * Helper method that warms an operation up, measures it and prints the
+     * results. Allocation is only counted on the calling thread, so work a
+     * benchmark hands to a pool is not included.
+     *
+     * @param label   the name of the benchmark
+     * @param bytes   the number of corpus bytes one operation processes, or 0
+     *                if it is not measured per byte
+     * @param op      the operation
+     * @param warmup  seconds of warmup
+     * @param measure seconds of measurement
+     * @throws Exception if the operation fails
+     */
+    private static void measure(String label, int bytes, Op op, double warmup, double measure)
+            throws Exception {
+        long deadline = System.nanoTime() + (long) (warmup * 1e9);
+        while (System.nanoTime() < deadline) {op.run();}
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long ops = 0;
+        long allocStart = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        long end = start + (long) (measure * 1e9);
+        long now;
+        do {
+            op.run();
+            ops++;
+            now = System.nanoTime();
+        } while (now < end);
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocStart;
+        double seconds = (now - start) / 1e9;
+        String throughput = bytes == 0 ? "-" : String.format("%.1f", bytes * ops / MB / seconds);
+        System.out.printf("%-28s %12.2f %10s %12d %10.1f%n", label, seconds * 1e6 / ops,
+                throughput, allocated / ops, allocated / MB / seconds);
+    }
+
+    /**
+     * Helper method that generates uniformly random bytes
+     *
+     * @param random the generator
+     * @param size   the number of bytes
+     * @return the corpus
+     */
+    private static byte[] uniform(Random random, int size) {
+        byte[] data = new byte[size];
+        random.nextBytes(data);
+        return data;
+    }
+
+    /**
+     * Helper method that generates text of words with Zipf-like frequencies
+     *
+     * @param random the generator
+     * @param size   the number of bytes
+     * @return the corpus
+     */
+    private static byte[] english(Random random, int size) {
+        StringBuilder text = new StringBuilder(size + 16);
+        while (text.length() < size) {
+            // squaring a uniform index favours the frequent words at the front
+            double u = random.nextDouble();
+            String word = WORDS[(int) (u * u * WORDS.length)];
+            if (text.length() == 0 || text.charAt(text.length() - 1) == '.') {
+                text.append(text.length() == 0 ? "" : " ")
+                        .append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+            } else {
+                text.append(' ').append(word);
+            }
+            if (random.nextInt(12) == 0) {text.append(random.nextInt(4) == 0 ? ",\n" : ".");}
+        }
+        return Arrays.copyOf(text.toString().getBytes(), size);
+    }
+
+    /**
+     * Helper method that generates geometrically distributed bytes, where each
+     * value is half as likely as the one before
+     *
+     * @param random the generator
+     * @param size   the number of bytes
+     * @return the corpus
+     */
+    private static byte[] skewed(Random random, int size) {
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            int value = Long.numberOfTrailingZeros(random.nextLong() | Long.MIN_VALUE);
+            data[i] = (byte) ('a' + value);
+        }
+        return data;
+    }
+
+}
@@ -0,0 +1,355 @@
+/*
+ * Name: Xiaotong Zuo
+ * PID:  A15445495
+ */
+
+import java.util.*;
+
+/**
+ * Class of addressable d-ary heaps. Adding an element returns a handle that
+ * stays valid until the element is removed, and a position map kept up to
+ * date by every sift lets the element be changed or removed through its
+ * handle in O(d log_d n).
+ *
+ * A handle is a slot in the position map (low 32 bits) and the generation of
+ * that slot (high 32 bits). Slots of removed elements are reused, but their
+ * generation is bumped first, so a handle kept after its element left the
+ * heap fails contains() and can never reach the element now in the slot.
+ *
+ * @param <T> Generic type
+ */
+public class IndexedDHeap<T extends Comparable<? super T>> {
+
+    private T[] heap; // heap array
+    private int[] handles; // slot of the element at each heap position
+    private int[] positions; // heap position of each slot, -1 if free
+    private int[] generations; // generation of each slot, bumped when freed
+    private int[] freeHandles; // stack of slots free for reuse
+    private int numFree; // number of slots on the free stack
+    private int numHandles; // number of slots ever handed out
+    private int d; // branching factor
+    private int nelems; // number of elements
+    private boolean isMaxHeap; // boolean to indicate whether heap is max or min
+
+    /**
+     * Initializes a binary max heap with capacity = 6
+     */
+    public IndexedDHeap() {
+        this(2, 6, true);
+    }
+
+    /**
+     * Initializes a binary max heap with a given initial capacity.
+     *
+     * @param heapSize The initial capacity of the heap.
+     */
+    public IndexedDHeap(int heapSize) {
+        this(2, heapSize, true);
+    }
+
+    /**
+     * Initializes a d-ary heap (with a given value for d), with a given initial
+     * capacity.
+     *
+     * @param d         The number of child nodes each node in the heap should have.
+     * @param heapSize  The initial capacity of the heap.
+     * @param isMaxHeap indicates whether the heap should be max or min
+     * @throws IllegalArgumentException if d is less than one.
+     */
+    @SuppressWarnings("unchecked")
+    public IndexedDHeap(int d, int heapSize, boolean isMaxHeap) throws IllegalArgumentException {
+        if (d < 1) {throw new IllegalArgumentException();}
+        heap = (T[]) new Comparable[heapSize];
+        handles = new int[heapSize];
+        positions = new int[heapSize];
+        generations = new int[heapSize];
+        freeHandles = new int[heapSize];
+        this.d = d;
+        nelems = 0;
+        this.isMaxHeap = isMaxHeap;
+    }
+
+    /**
+     * Returns the number of elements stored in the heap.
+     *
+     * @return number of elements in the heap
+     */
+    public int size() {
+        return nelems;
+    }
+
+    /**
+     * Adds the given data to the heap.
+     *
+     * @param data to add
+     * @return the handle of the element
+     * @throws NullPointerException if data is null
+     */
+    public long add(T data) throws NullPointerException {
+        if (data == null) {throw new NullPointerException();}
+        if (nelems == heap.length) {resize();}
+        int slot = numFree > 0 ? freeHandles[--numFree] : numHandles++;
+        bubbleUp(nelems, data, slot);
+        nelems++;
+        return handle(slot);
+    }
+
+    /**
+     * Returns and removes the root element from the heap. Its handle becomes
+     * invalid.
+     *
+     * @return the root element
+     * @throws NoSuchElementException if the heap is empty
+     */
+    public T remove() throws NoSuchElementException {
+        if (nelems == 0) {throw new NoSuchElementException();}
+        return removeAt(0);
+    }
+
+    /**
+     * Removes the element with the given handle. The handle becomes invalid.
+     *
+     * @param handle of the element
+     * @return the element removed
+     * @throws NoSuchElementException if no element has the handle
+     */
+    public T remove(long handle) throws NoSuchElementException {
+        return removeAt(position(handle));
+    }
+
+    /**
+     * Replaces the element with the given handle, moving it up or down to
+     * its new place. The handle stays the same.
+     *
+     * @param handle of the element
+     * @param data   the new element
+     * @throws NoSuchElementException if no element has the handle
+     * @throws NullPointerException if data is null
+     */
+    public void update(long handle, T data) throws NoSuchElementException, NullPointerException {
+        if (data == null) {throw new NullPointerException();}
+        sift(position(handle), data, (int) handle);
+    }
+
+    /**
+     * Returns whether an element has the given handle. A handle whose
+     * element was removed stays invalid even after its slot is reused.
+     *
+     * @param handle to look up
+     * @return true if the handle belongs to an element of the heap
+     */
+    public boolean contains(long handle) {
+        int slot = (int) handle;
+        return slot >= 0 && slot < numHandles && positions[slot] >= 0
+                && generations[slot] == (int) (handle >>> 32);
+    }
+
+    /**
+     * Returns the element with the given handle.
+     *
+     * @param handle of the element
+     * @return the element
+     * @throws NoSuchElementException if no element has the handle
+     */
+    public T get(long handle) throws NoSuchElementException {
+        return heap[position(handle)];
+    }
+
+    /**
+     * Clear all elements in the heap. Every handle becomes invalid.
+     */
+    public void clear() {
+        for (int i = 0; i < nelems; i++) {free(handles[i]);}
+        Arrays.fill(heap, 0, nelems, null);
+        nelems = 0;
+    }
+
+    /**
+     * Returns the root element from the heap.
+     *
+     * @return the root element
+     * @throws NoSuchElementException if the heap is empty
+     */
+    public T element() throws NoSuchElementException {
+        if (nelems == 0) {throw new NoSuchElementException();}
+        return heap[0];
+    }
+
+    /**
+     * Returns the handle of the root element.
+     *
+     * @return the handle of the root element
+     * @throws NoSuchElementException if the heap is empty
+     */
+    public long elementHandle() throws NoSuchElementException {
+        if (nelems == 0) {throw new NoSuchElementException();}
+        return handle(handles[0]);
+    }
+
+    /**
+     * Helper method that removes the element at a heap position, filling the
+     * hole with the last element.
+     *
+     * @param index the heap position
+     * @return the element removed
+     */
+    private T removeAt(int index) {
+        T toReturn = heap[index];
+        free(handles[index]);
+        nelems--;
+        if (index < nelems) {sift(index, heap[nelems], handles[nelems]);}
+        heap[nelems] = null;
+        return toReturn;
+    }
+
+    /**
+     * Helper method that frees a slot for reuse, bumping its generation so
+     * the handles handed out for it become invalid.
+     *
+     * @param slot the slot
+     */
+    private void free(int slot) {
+        positions[slot] = -1;
+        generations[slot]++;
+        freeHandles[numFree++] = slot;
+    }
+
+    /**
+     * Helper method that returns the current handle of a slot.
+     *
+     * @param slot the slot
+     * @return the slot with its generation in the high 32 bits
+     */
+    private long handle(int slot) {
+        return ((long) generations[slot] << 32) | slot;
+    }
+
+    /**
+     * Helper method that places an element into a hole, moving it up if it
+     * is better than its parent and down otherwise.
+     *
+     * @param index  the hole
+     * @param data   the element to place
+     * @param handle the handle of the element
+     */
+    private void sift(int index, T data, int handle) {
+        if (index > 0 && before(data, heap[parent(index)])) {
+            bubbleUp(index, data, handle);
+        } else {
+            trickleDown(index, data, handle);
+        }
+    }
+
+    /**
+     * Helper method for trickling an element down from a hole.
+     *
+     * @param index  the hole to start at
+     * @param data   the element to place
+     * @param handle the handle of the element
+     */
+    private void trickleDown(int index, T data, int handle) {
+        int childIndex = d * index + 1;
+        while (childIndex < nelems) {
+            // Find the max (or min) among the node's children
+            int best = childIndex;
+            int end = Math.min(childIndex + d, nelems);
+            for (int i = childIndex + 1; i < end; i++) {
+                if (before(heap[i], heap[best])) {best = i;}
+            }
+            if (!before(heap[best], data)) {break;}
+            move(best, index);
+            index = best;
+            childIndex = d * index + 1;
+        }
+        place(index, data, handle);
+    }
+
+    /**
+     * Helper method for bubbling an element up from a hole.
+     *
+     * @param index  the hole to start at
+     * @param data   the element to place
+     * @param handle the handle of the element
+     */
+    private void bubbleUp(int index, T data, int handle) {
+        while (index > 0) {
+            int parentIndex = parent(index);
+            if (!before(data, heap[parentIndex])) {break;}
+            move(parentIndex, index);
+            index = parentIndex;
+        }
+        place(index, data, handle);
+    }
+
+    /**
+     * Helper method that moves an element into a hole, keeping its position
+     * up to date.
+     *
+     * @param from the position of the element
+     * @param to   the hole
+     */
+    private void move(int from, int to) {
+        heap[to] = heap[from];
+        handles[to] = handles[from];
+        positions[handles[to]] = to;
+    }
+
+    /**
+     * Helper method that puts an element into a hole.
+     *
+     * @param index  the hole
+     * @param data   the element
+     * @param handle the handle of the element
+     */
+    private void place(int index, T data, int handle) {
+        heap[index] = data;
+        handles[index] = handle;
+        positions[handle] = index;
+    }
+
+    /**
+     * Helper method that returns whether an element belongs above another.
+     *
+     * @param a the first element
+     * @param b the second element
+     * @return true if a is strictly larger in a max heap (smaller in a min heap)
+     */
+    private boolean before(T a, T b) {
+        int cmp = a.compareTo(b);
+        return isMaxHeap ? cmp > 0 : cmp < 0;
+    }
+
+    /**
+     * Helper method that returns the heap position of a handle.
+     *
+     * @param handle the handle
+     * @return the position
+     * @throws NoSuchElementException if no element has the handle
+     */
+    private int position(long handle) throws NoSuchElementException {
+        if (!contains(handle)) {throw new NoSuchElementException();}
+        return positions[(int) handle];
+    }
+
+    /**
+     * Helper method that doubles the arrays when the heap is full.
+     */
+    private void resize() {
+        int len = Math.max(1, heap.length * 2);
+        heap = Arrays.copyOf(heap, len);
+        handles = Arrays.copyOf(handles, len);
+        positions = Arrays.copyOf(positions, len);
+        generations = Arrays.copyOf(generations, len);
+        freeHandles = Arrays.copyOf(freeHandles, len);
+    }
+
+    /**
+     * Helper method for finding the index of parent
+     *
+     * @return the index
+     */
+    private int parent(int index) {
+        return (index - 1) / d;
+    }
+
+}
@@ -0,0 +1,195 @@
+/*
+ * Name: Xiaotong Zuo
+ * PID: A15445495
+ */
+
+import java.io.*;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Four-stream variant of the HCTree bit stream. The input is cut into four
+ * consecutive parts that are encoded into separate bit streams with the same
+ * tree. Finding where a symbol starts in one stream does not depend on the
+ * other streams, so the decoder advances four independent bit cursors in the
+ * same loop and the CPU can overlap their table lookups.
+ *
+ * Format: the byte lengths of streams 0, 1 and 2 as ints, then the four
+ * streams, each padded to a byte boundary. The tree itself is not included.
+ */
+public class InterleavedHuffman {
+    // number of interleaved streams
+    private static final int NUM_STREAMS = 4;
+    // number of bytes of the stream length table
+    private static final int JUMP_TABLE_SIZE = 12;
+    // reads 8 bytes of an array as a big-endian long
+    private static final VarHandle LONG_BE =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    /**
+     * Encode a range of an array into four streams
+     *
+     * @param tree the tree coding the symbols
+     * @param src  the symbols to encode
+     * @param off  the first symbol
+     * @param len  the number of symbols
+     * @return the jump table followed by the four streams
+     * @throws IOException if encoding fails
+     */
+    public static byte[] encode(HCTree tree, byte[] src, int off, int len) throws IOException {
+        int[] sizes = streamSizes(len);
+        ByteArrayOutputStream[] streams = new ByteArrayOutputStream[NUM_STREAMS];
+        int start = off;
+        for (int s = 0; s < NUM_STREAMS; s++) {
+            streams[s] = new ByteArrayOutputStream(sizes[s] / 2 + 8);
+            BitOutputStream out = new BitOutputStream(streams[s]);
+            for (int i = start; i < start + sizes[s]; i++) {tree.encode(src[i], out);}
+            out.flush();
+            start += sizes[s];
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(JUMP_TABLE_SIZE
+                + streams[0].size() + streams[1].size() + streams[2].size() + streams[3].size());
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (int s = 0; s < NUM_STREAMS - 1; s++) {out.writeInt(streams[s].size());}
+        for (int s = 0; s < NUM_STREAMS; s++) {streams[s].writeTo(out);}
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode four streams written by encode
+     *
+     * @param tree   the tree coding the symbols
+     * @param src    the encoded bytes
+     * @param off    the first encoded byte
+     * @param srcLen the number of encoded bytes
+     * @param dst    the array receiving the symbols
+     * @param dstOff the first index to fill
+     * @param len    the number of symbols
+     * @throws IOException if the streams are malformed
+     */
+    public static void decode(HCTree tree, byte[] src, int off, int srcLen, byte[] dst,
+                              int dstOff, int len) throws IOException {
+        if (srcLen < JUMP_TABLE_SIZE) {throw new EOFException();}
+        int end = off + srcLen;
+        int[] sizes = streamSizes(len);
+        // bit cursors of the four streams
+        long p0 = (long) (off + JUMP_TABLE_SIZE) * 8;
+        long p1 = nextStream(src, off, p0, end);
+        long p2 = nextStream(src, off + 4, p1, end);
+        long p3 = nextStream(src, off + 8, p2, end);
+        int d0 = dstOff;
+        int d1 = d0 + sizes[0];
+        int d2 = d1 + sizes[1];
+        int d3 = d2 + sizes[2];
+
+        // streams are as long as each other or one symbol shorter, in order
+        for (int i = 0; i < sizes[3]; i++) {
+            int e0 = tree.lookup(window(src, p0, end));
+            int e1 = tree.lookup(window(src, p1, end));
+            int e2 = tree.lookup(window(src, p2, end));
+            int e3 = tree.lookup(window(src, p3, end));
+            dst[d0++] = (byte) HCDecodeTable.symbol(e0);
+            dst[d1++] = (byte) HCDecodeTable.symbol(e1);
+            dst[d2++] = (byte) HCDecodeTable.symbol(e2);
+            dst[d3++] = (byte) HCDecodeTable.symbol(e3);
+            p0 += HCDecodeTable.length(e0);
+            p1 += HCDecodeTable.length(e1);
+            p2 += HCDecodeTable.length(e2);
+            p3 += HCDecodeTable.length(e3);
+        }
+        decodeTail(tree, src, p0, end, dst, d0, sizes[0] - sizes[3]);
+        decodeTail(tree, src, p1, end, dst, d1, sizes[1] - sizes[3]);
+        decodeTail(tree, src, p2, end, dst, d2, sizes[2] - sizes[3]);
+    }
+
+    /**
+     * Helper method that reads the length of a stream from the jump table and
+     * returns the bit cursor of the stream after it
+     *
+     * @param src   the encoded bytes
+     * @param entry the index of the length in the jump table
+     * @param pos   the bit cursor of the stream
+     * @param end   one past the last encoded byte
+     * @return the bit cursor of the next stream
+     * @throws IOException if the length is negative or runs past end
+     */
+    private static long nextStream(byte[] src, int entry, long pos, int end) throws IOException {
+        int length = readInt(src, entry);
+        if (length < 0) {throw new IOException("Negative stream length");}
+        long next = pos + (long) length * 8;
+        if (next > (long) end * 8) {throw new EOFException();}
+        return next;
+    }
+
+    /**
+     * Helper method that decodes the symbols left in one stream
+     *
+     * @param tree   the tree coding the symbols
+     * @param src    the encoded bytes
+     * @param pos    the bit cursor of the stream
+     * @param end    one past the last encoded byte
+     * @param dst    the array receiving the symbols
+     * @param dstOff the first index to fill
+     * @param count  the number of symbols left
+     */
+    private static void decodeTail(HCTree tree, byte[] src, long pos, int end, byte[] dst,
+                                   int dstOff, int count) {
+        for (int i = 0; i < count; i++) {
+            int entry = tree.lookup(window(src, pos, end));
+            dst[dstOff + i] = (byte) HCDecodeTable.symbol(entry);
+            pos += HCDecodeTable.length(entry);
+        }
+    }
+
+    /**
+     * Helper method that reads the 57 or more bits starting at a bit cursor.
+     * Bits past the end read as zeros.
+     *
+     * @param src the encoded bytes
+     * @param pos the bit cursor
+     * @param end one past the last encoded byte
+     * @return the next bits, left-aligned
+     */
+    private static long window(byte[] src, long pos, int end) {
+        int i = (int) (pos >>> 3);
+        long bits;
+        if (i + 8 <= end) {
+            bits = (long) LONG_BE.get(src, i);
+        } else {
+            bits = 0;
+            for (int j = 0; j < 8; j++) {
+                bits = (bits << 8) | (i + j < end ? src[i + j] & 0xff : 0);
+            }
+        }
+        return bits << (pos & 7);
+    }
+
+    /**
+     * Helper method that reads a big-endian int
+     *
+     * @param src the array
+     * @param off the first byte of the int
+     * @return the int
+     */
+    private static int readInt(byte[] src, int off) {
+        return ((src[off] & 0xff) << 24) | ((src[off + 1] & 0xff) << 16)
+                | ((src[off + 2] & 0xff) << 8) | (src[off + 3] & 0xff);
+    }
+
+    /**
+     * Helper method that splits a number of symbols across the streams
+     *
+     * @param len the number of symbols
+     * @return the number of symbols of each stream
+     */
+    private static int[] streamSizes(int len) {
+        int[] sizes = new int[NUM_STREAMS];
+        for (int s = 0; s < NUM_STREAMS; s++) {
+            sizes[s] = len / NUM_STREAMS + (s < len % NUM_STREAMS ? 1 : 0);
+        }
+        return sizes;
+    }
+
+}
@@ -0,0 +1,269 @@
+/*
+ * Name: Xiaotong Zuo
+ * PID:  A15445495
+ */
+
+import java.util.*;
+import java.util.function.ToLongFunction;
+
+/**
+ * Class of d-ary heaps ordered by a Comparator or by a long key extracted
+ * from each element. With a key extractor, the key is extracted once when
+ * the element is added and cached in a long[] next to the heap array, so
+ * sifting compares primitives instead of calling into the elements.
+ *
+ * @param <T> Generic type
+ */
+public class KeyedDHeap<T> {
+
+    private T[] heap; // heap array
+    private long[] keys; // cached key of each element, or null with a comparator
+    private ToLongFunction<? super T> keyExtractor; // extracts keys, or null
+    private Comparator<? super T> comparator; // orders elements, or null
+    private int d; // branching factor
+    private int nelems; // number of elements
+    private boolean isMaxHeap; // boolean to indicate whether heap is max or min
+
+    /**
+     * Initializes a binary max heap with capacity = 6, ordered by the given
+     * key
+     *
+     * @param keyExtractor extracts the key of an element
+     */
+    public KeyedDHeap(ToLongFunction<? super T> keyExtractor) {
+        this(2, 6, true, keyExtractor);
+    }
+
+    /**
+     * Initializes a d-ary heap ordered by the given key, with a given initial
+     * capacity.
+     *
+     * @param d            The number of child nodes each node in the heap should have.
+     * @param heapSize     The initial capacity of the heap.
+     * @param isMaxHeap    indicates whether the heap should be max or min
+     * @param keyExtractor extracts the key of an element
+     * @throws IllegalArgumentException if d is less than one.
+     * @throws NullPointerException if keyExtractor is null
+     */
+    public KeyedDHeap(int d, int heapSize, boolean isMaxHeap, ToLongFunction<? super T> keyExtractor)
+            throws IllegalArgumentException, NullPointerException {
+        this(d, heapSize, isMaxHeap);
+        if (keyExtractor == null) {throw new NullPointerException();}
+        this.keyExtractor = keyExtractor;
+        keys = new long[heapSize];
+    }
+
+    /**
+     * Initializes a d-ary heap ordered by the given comparator, with a given
+     * initial capacity.
+     *
+     * @param d          The number of child nodes each node in the heap should have.
+     * @param heapSize   The initial capacity of the heap.
+     * @param isMaxHeap  indicates whether the heap should be max or min
+     * @param comparator orders the elements
+     * @throws IllegalArgumentException if d is less than one.
+     * @throws NullPointerException if comparator is null
+     */
+    public KeyedDHeap(int d, int heapSize, boolean isMaxHeap, Comparator<? super T> comparator)
+            throws IllegalArgumentException, NullPointerException {
+        this(d, heapSize, isMaxHeap);
+        if (comparator == null) {throw new NullPointerException();}
+        this.comparator = comparator;
+    }
+
+    /**
+     * Helper constructor for the fields shared by both orderings
+     *
+     * @param d         The number of child nodes each node in the heap should have.
+     * @param heapSize  The initial capacity of the heap.
+     * @param isMaxHeap indicates whether the heap should be max or min
+     * @throws IllegalArgumentException if d is less than one.
+     */
+    @SuppressWarnings("unchecked")
+    private KeyedDHeap(int d, int heapSize, boolean isMaxHeap) throws IllegalArgumentException {
+        if (d < 1) {throw new IllegalArgumentException();}
+        heap = (T[]) new Object[heapSize];
+        this.d = d;
+        nelems = 0;
+        this.isMaxHeap = isMaxHeap;
+    }
+
+    /**
+     * Returns the number of elements stored in the heap.
+     *
+     * @return number of elements in the heap
+     */
+    public int size() {
+        return nelems;
+    }
+
+    /**
+     * Adds the given data to the heap.
+     *
+     * @param data to add
+     * @throws NullPointerException if data is null
+     */
+    public void add(T data) throws NullPointerException {
+        if (data == null) {throw new NullPointerException();}
+        if (nelems == heap.length) {resize();}
+        long key = keys == null ? 0 : keyExtractor.applyAsLong(data);
+        bubbleUp(nelems, data, key);
+        nelems++;
+    }
+
+    /**
+     * Returns and removes the root element from the heap.
+     *
+     * @return the root element
+     * @throws NoSuchElementException if the heap is empty
+     */
+    public T remove() throws NoSuchElementException {
+        if (nelems == 0) {throw new NoSuchElementException();}
+        T toReturn = heap[0];
+        nelems--;
+        if (nelems > 0) {trickleDown(0, heap[nelems], keys == null ? 0 : keys[nelems]);}
+        heap[nelems] = null;
+        return toReturn;
+    }
+
+    /**
+     * Clear all elements in the heap.
+     */
+    public void clear() {
+        Arrays.fill(heap, 0, nelems, null);
+        nelems = 0;
+    }
+
+    /**
+     * Returns the root element from the heap.
+     *
+     * @return the root element
+     * @throws NoSuchElementException if the heap is empty
+     */
+    public T element() throws NoSuchElementException {
+        if (nelems == 0) {throw new NoSuchElementException();}
+        return heap[0];
+    }
+
+    /**
+     * Returns the cached key of the root element.
+     *
+     * @return the key of the root element
+     * @throws NoSuchElementException if the heap is empty
+     * @throws IllegalStateException if the heap is ordered by a comparator
+     */
+    public long elementKey() throws NoSuchElementException, IllegalStateException {
+        if (keys == null) {throw new IllegalStateException();}
+        if (nelems == 0) {throw new NoSuchElementException();}
+        return keys[0];
+    }
+
+    /**
+     * Helper method for trickling an element down from a hole.
+     *
+     * @param index the hole to start at
+     * @param data  the element to place
+     * @param key   the key of the element, unused with a comparator
+     */
+    private void trickleDown(int index, T data, long key) {
+        int childIndex = d * index + 1;
+        while (childIndex < nelems) {
+            // Find the max (or min) among the node's children
+            int best = childIndex;
+            int end = Math.min(childIndex + d, nelems);
+            for (int i = childIndex + 1; i < end; i++) {
+                if (before(heap[i], key(i), heap[best], key(best))) {best = i;}
+            }
+            if (!before(heap[best], key(best), data, key)) {break;}
+            move(best, index);
+            index = best;
+            childIndex = d * index + 1;
+        }
+        place(index, data, key);
+    }
+
+    /**
+     * Helper method for bubbling an element up from a hole.
+     *
+     * @param index the hole to start at
+     * @param data  the element to place
+     * @param key   the key of the element, unused with a comparator
+     */
+    private void bubbleUp(int index, T data, long key) {
+        while (index > 0) {
+            int parentIndex = parent(index);
+            if (!before(data, key, heap[parentIndex], key(parentIndex))) {break;}
+            move(parentIndex, index);
+            index = parentIndex;
+        }
+        place(index, data, key);
+    }
+
+    /**
+     * Helper method that returns whether an element belongs above another.
+     * Keys are compared when they are cached, elements otherwise.
+     *
+     * @param a    the first element
+     * @param keyA the key of the first element
+     * @param b    the second element
+     * @param keyB the key of the second element
+     * @return true if a is strictly larger in a max heap (smaller in a min heap)
+     */
+    private boolean before(T a, long keyA, T b, long keyB) {
+        if (keys != null) {return isMaxHeap ? keyA > keyB : keyA < keyB;}
+        int cmp = comparator.compare(a, b);
+        return isMaxHeap ? cmp > 0 : cmp < 0;
+    }
+
+    /**
+     * Helper method that returns the cached key at a heap position.
+     *
+     * @param index the heap position
+     * @return the key, or 0 with a comparator
+     */
+    private long key(int index) {
+        return keys == null ? 0 : keys[index];
+    }
+
+    /**
+     * Helper method that moves an element into a hole.
+     *
+     * @param from the position of the element
+     * @param to   the hole
+     */
+    private void move(int from, int to) {
+        heap[to] = heap[from];
+        if (keys != null) {keys[to] = keys[from];}
+    }
+
+    /**
+     * Helper method that puts an element into a hole.
+     *
+     * @param index the hole
+     * @param data  the element
+     * @param key   the key of the element
+     */
+    private void place(int index, T data, long key) {
+        heap[index] = data;
+        if (keys != null) {keys[index] = key;}
+    }
+
+    /**
+     * Helper method that doubles the heap array when it is full.
+     */
+    private void resize() {
+        int len = Math.max(1, heap.length * 2);
+        heap = Arrays.copyOf(heap, len);
+        if (keys != null) {keys = Arrays.copyOf(keys, len);}
+    }
+
+    /**
+     * Helper method for finding the index of parent
+     *
+     * @return the index
+     */
+    private int parent(int index) {
+        return (index - 1) / d;
+    }
+
+}
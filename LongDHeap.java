@@ -0,0 +1,197 @@
+/*
+ * Name: Xiaotong Zuo
+ * PID:  A15445495
+ */
+
+import java.util.*;
+
+/**
+ * Class of d-ary heaps of long keys. Keys are stored in a long[] and compared
+ * directly, so nothing is boxed. Each key may carry a long payload, such as an
+ * id, kept in a parallel array that is only allocated once a payload is
+ * added.
+ */
+public class LongDHeap {
+
+    private long[] heap; // heap array
+    private long[] payloads; // payload of each key, or null if none were added
+    private int d; // branching factor
+    private int nelems; // number of elements
+    private boolean isMaxHeap; // boolean to indicate whether heap is max or min
+
+    /**
+     * Initializes a binary max heap with capacity = 6
+     */
+    public LongDHeap() {
+        this(2, 6, true);
+    }
+
+    /**
+     * Initializes a binary max heap with a given initial capacity.
+     *
+     * @param heapSize The initial capacity of the heap.
+     */
+    public LongDHeap(int heapSize) {
+        this(2, heapSize, true);
+    }
+
+    /**
+     * Initializes a d-ary heap (with a given value for d), with a given initial
+     * capacity.
+     *
+     * @param d         The number of child nodes each node in the heap should have.
+     * @param heapSize  The initial capacity of the heap.
+     * @param isMaxHeap indicates whether the heap should be max or min
+     * @throws IllegalArgumentException if d is less than one.
+     */
+    public LongDHeap(int d, int heapSize, boolean isMaxHeap) throws IllegalArgumentException {
+        if (d < 1) {throw new IllegalArgumentException();}
+        heap = new long[heapSize];
+        this.d = d;
+        nelems = 0;
+        this.isMaxHeap = isMaxHeap;
+    }
+
+    /**
+     * Returns the number of elements stored in the heap.
+     *
+     * @return number of elements in the heap
+     */
+    public int size() {
+        return nelems;
+    }
+
+    /**
+     * Adds the given key to the heap, with a payload of 0.
+     *
+     * @param key to add
+     */
+    public void add(long key) {
+        add(key, 0);
+    }
+
+    /**
+     * Adds the given key with a payload to the heap.
+     *
+     * @param key     to add
+     * @param payload carried with the key
+     */
+    public void add(long key, long payload) {
+        if (nelems == heap.length) {resize();}
+        if (payload != 0 && payloads == null) {payloads = new long[heap.length];}
+        bubbleUp(nelems, key, payload);
+        nelems++;
+    }
+
+    /**
+     * Returns and removes the root key from the heap. Read its payload with
+     * elementPayload() first.
+     *
+     * @return the root key
+     * @throws NoSuchElementException if the heap is empty
+     */
+    public long remove() throws NoSuchElementException {
+        if (nelems == 0) {throw new NoSuchElementException();}
+        long toReturn = heap[0];
+        nelems--;
+        if (nelems > 0) {
+            trickleDown(0, heap[nelems], payloads == null ? 0 : payloads[nelems]);
+        }
+        return toReturn;
+    }
+
+    /**
+     * Clear all elements in the heap.
+     */
+    public void clear() {
+        nelems = 0;
+    }
+
+    /**
+     * Returns the root key from the heap.
+     *
+     * @return the root key
+     * @throws NoSuchElementException if the heap is empty
+     */
+    public long element() throws NoSuchElementException {
+        if (nelems == 0) {throw new NoSuchElementException();}
+        return heap[0];
+    }
+
+    /**
+     * Returns the payload of the root key.
+     *
+     * @return the payload of the root key
+     * @throws NoSuchElementException if the heap is empty
+     */
+    public long elementPayload() throws NoSuchElementException {
+        if (nelems == 0) {throw new NoSuchElementException();}
+        return payloads == null ? 0 : payloads[0];
+    }
+
+    /**
+     * Helper method for trickling a key down from a hole. Children are moved
+     * up into the hole until the key fits.
+     *
+     * @param index   the hole to start at
+     * @param key     the key to place
+     * @param payload the payload of the key
+     */
+    private void trickleDown(int index, long key, long payload) {
+        int childIndex = d * index + 1;
+        while (childIndex < nelems) {
+            // Find the max (or min) among the node's children
+            int best = childIndex;
+            int end = Math.min(childIndex + d, nelems);
+            for (int i = childIndex + 1; i < end; i++) {
+                if (isMaxHeap ? heap[i] > heap[best] : heap[i] < heap[best]) {best = i;}
+            }
+            if (isMaxHeap ? heap[best] <= key : heap[best] >= key) {break;}
+            heap[index] = heap[best];
+            if (payloads != null) {payloads[index] = payloads[best];}
+            index = best;
+            childIndex = d * index + 1;
+        }
+        heap[index] = key;
+        if (payloads != null) {payloads[index] = payload;}
+    }
+
+    /**
+     * Helper method for bubbling a key up from a hole. Parents are moved down
+     * into the hole until the key fits.
+     *
+     * @param index   the hole to start at
+     * @param key     the key to place
+     * @param payload the payload of the key
+     */
+    private void bubbleUp(int index, long key, long payload) {
+        while (index > 0) {
+            int parentIndex = parent(index);
+            if (isMaxHeap ? heap[parentIndex] >= key : heap[parentIndex] <= key) {break;}
+            heap[index] = heap[parentIndex];
+            if (payloads != null) {payloads[index] = payloads[parentIndex];}
+            index = parentIndex;
+        }
+        heap[index] = key;
+        if (payloads != null) {payloads[index] = payload;}
+    }
+
+    /**
+     * Helper method that doubles the heap array when it is full.
+     */
+    private void resize() {
+        int len = Math.max(1, heap.length * 2);
+        heap = Arrays.copyOf(heap, len);
+        if (payloads != null) {payloads = Arrays.copyOf(payloads, len);}
+    }
+
+    /**
+     * Helper method for finding the index of parent
+     *
+     * @return the index
+     */
+    private int parent(int index) {
+        return (index - 1) / d;
+    }
+
+}
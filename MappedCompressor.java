@@ -0,0 +1,315 @@
+/*
+ * Name: Xiaotong Zuo
+ * PID: A15445495
+ */
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Huffman file compressor working on memory-mapped files. Frequencies are
+ * counted and symbols are encoded straight from the mapped input, and the
+ * output file is preallocated to its exact size and written through mapped
+ * regions. Files are mapped one region of at most MAP_SIZE bytes at a time,
+ * so they may be larger than 2 GB.
+ *
+ * File format: MAGIC, original length, header length, the canonical header
+ * padded to a byte boundary, then the encoded bits.
+ */
+public class MappedCompressor {
+    // the largest region mapped at once
+    private static final int MAP_SIZE = 1 << 30;
+    // marks a compressed file
+    private static final int MAGIC = 0x48434D31;
+    // number of bytes before the header
+    private static final int PREFIX_SIZE = 16;
+    // alphabet size of extended ASCII
+    private static final int NUM_CHARS = 256;
+
+    /**
+     * Compress a file
+     *
+     * @param in  path of the file to compress
+     * @param out path of the compressed file
+     * @throws IOException if reading or writing fails
+     */
+    public static void compress(Path in, Path out) throws IOException {
+        compress(in, out, null);
+    }
+
+    /**
+     * Compress a file, recording the time of each phase
+     *
+     * @param in    path of the file to compress
+     * @param out   path of the compressed file
+     * @param stats the stats to record in, or null
+     * @throws IOException if reading or writing fails
+     */
+    public static void compress(Path in, Path out, HCStats stats) throws IOException {
+        try (FileChannel src = FileChannel.open(in, StandardOpenOption.READ);
+             FileChannel dst = FileChannel.open(out, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+                     StandardOpenOption.WRITE)) {
+            long start = System.nanoTime();
+            long size = src.size();
+            long[] counts = new long[NUM_CHARS];
+            for (long pos = 0; pos < size; pos += MAP_SIZE) {
+                MappedByteBuffer region = map(src, FileChannel.MapMode.READ_ONLY, pos, size);
+                int[] regionFreq = FrequencyCounter.countParallel(region, ForkJoinPool.commonPool());
+                for (int i = 0; i < NUM_CHARS; i++) {counts[i] += regionFreq[i];}
+            }
+            int[] freq = scaleCounts(counts);
+
+            long counted = System.nanoTime();
+            HCTree tree = new HCTree();
+            byte[] header = new byte[0];
+            long dataBits = 0;
+            if (size > 0) {
+                tree.buildTree(freq, HCTree.DEFAULT_MAX_CODE_LEN);
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                BitOutputStream headerOut = new BitOutputStream(bytes);
+                tree.writeCanonicalHeader(headerOut);
+                headerOut.flush();
+                header = bytes.toByteArray();
+                for (int i = 0; i < NUM_CHARS; i++) {
+                    dataBits += counts[i] * tree.getCodeLength((byte) i);
+                }
+            }
+
+            long built = System.nanoTime();
+            long outSize = PREFIX_SIZE + header.length + (dataBits + 7) / 8;
+            MappedOutputStream mappedOut = new MappedOutputStream(dst, outSize);
+            DataOutputStream prefix = new DataOutputStream(mappedOut);
+            prefix.writeInt(MAGIC);
+            prefix.writeLong(size);
+            prefix.writeInt(header.length);
+            prefix.write(header);
+            BitOutputStream bitOut = new BitOutputStream(mappedOut);
+            for (long pos = 0; pos < size; pos += MAP_SIZE) {
+                MappedByteBuffer region = map(src, FileChannel.MapMode.READ_ONLY, pos, size);
+                for (int i = 0; i < region.limit(); i++) {tree.encode(region.get(i), bitOut);}
+            }
+            long encoded = System.nanoTime();
+            bitOut.flush();
+            if (stats != null) {
+                stats.recordHistogram(size, counted - start);
+                if (size > 0) {stats.recordBuild(tree, counts, built - counted);}
+                stats.recordEncode(encoded - built);
+                stats.recordFlush(outSize, System.nanoTime() - encoded);
+            }
+        }
+    }
+
+    /**
+     * Decompress a file
+     *
+     * @param in  path of the compressed file
+     * @param out path of the decompressed file
+     * @throws IOException if the file is malformed or reading or writing fails
+     */
+    public static void decompress(Path in, Path out) throws IOException {
+        decompress(in, out, null);
+    }
+
+    /**
+     * Decompress a file, recording the time taken
+     *
+     * @param in    path of the compressed file
+     * @param out   path of the decompressed file
+     * @param stats the stats to record in, or null
+     * @throws IOException if the file is malformed or reading or writing fails
+     */
+    public static void decompress(Path in, Path out, HCStats stats) throws IOException {
+        try (FileChannel src = FileChannel.open(in, StandardOpenOption.READ);
+             FileChannel dst = FileChannel.open(out, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+                     StandardOpenOption.WRITE)) {
+            long start = System.nanoTime();
+            MappedInputStream mappedIn = new MappedInputStream(src);
+            DataInputStream prefix = new DataInputStream(mappedIn);
+            if (prefix.readInt() != MAGIC) {throw new IOException("Not a mapped Huffman file");}
+            long size = prefix.readLong();
+            prefix.readInt();
+
+            if (size > 0) {
+                BitInputStream bitIn = new BitInputStream(mappedIn);
+                HCTree tree = new HCTree();
+                tree.readCanonicalHeader(bitIn);
+                bitIn.alignToByte();
+                for (long pos = 0; pos < size; pos += MAP_SIZE) {
+                    MappedByteBuffer region = map(dst, FileChannel.MapMode.READ_WRITE, pos, size);
+                    for (int i = 0; i < region.limit(); i++) {region.put(i, tree.decode(bitIn));}
+                }
+            }
+            if (stats != null) {stats.recordDecode(size, System.nanoTime() - start);}
+        }
+    }
+
+    /**
+     * Helper method that scales counts down until the largest fits in an int,
+     * keeping every nonzero count at one or more
+     *
+     * @param counts the number of occurrences of each byte value
+     * @return the scaled frequencies
+     */
+    private static int[] scaleCounts(long[] counts) {
+        long max = 0;
+        for (long count : counts) {max = Math.max(max, count);}
+        int shift = Math.max(0, 64 - Long.numberOfLeadingZeros(max) - 31);
+        int[] freq = new int[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {freq[i] = (int) Math.max(1, counts[i] >>> shift);}
+        }
+        return freq;
+    }
+
+    /**
+     * Helper method that maps the region of a file starting at the given
+     * position
+     *
+     * @param ch   the file
+     * @param mode the mapping mode
+     * @param pos  the first byte of the region
+     * @param size the size of the file
+     * @return the mapped region, at most MAP_SIZE bytes
+     * @throws IOException if mapping fails
+     */
+    private static MappedByteBuffer map(FileChannel ch, FileChannel.MapMode mode, long pos,
+                                        long size) throws IOException {
+        return ch.map(mode, pos, Math.min(MAP_SIZE, size - pos));
+    }
+
+    /**
+     * Stream reading a file through successive mapped regions
+     */
+    private static class MappedInputStream extends InputStream {
+
+        FileChannel ch; // the file
+        long pos; // the position of the current region
+        ByteBuffer region; // the current region
+
+        /**
+         * Initializes a stream reading the given file from the start
+         *
+         * @param ch the file
+         */
+        MappedInputStream(FileChannel ch) {
+            this.ch = ch;
+            this.region = ByteBuffer.allocate(0);
+        }
+
+        /**
+         * Reads the next byte
+         *
+         * @return the next byte, or -1 at the end of the file
+         * @throws IOException if mapping fails
+         */
+        public int read() throws IOException {
+            if (!nextRegion()) {return -1;}
+            return region.get() & 0xff;
+        }
+
+        /**
+         * Reads the next bytes into the given array
+         *
+         * @param b   the destination array
+         * @param off the first index to fill
+         * @param len the maximum number of bytes to read
+         * @return the number of bytes read, or -1 at the end of the file
+         * @throws IOException if mapping fails
+         */
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {return 0;}
+            if (!nextRegion()) {return -1;}
+            int n = Math.min(len, region.remaining());
+            region.get(b, off, n);
+            return n;
+        }
+
+        /**
+         * Helper method that maps the next region once the current one is
+         * used up
+         *
+         * @return false at the end of the file
+         * @throws IOException if mapping fails
+         */
+        private boolean nextRegion() throws IOException {
+            if (region.hasRemaining()) {return true;}
+            pos += region.capacity();
+            if (pos >= ch.size()) {return false;}
+            region = map(ch, FileChannel.MapMode.READ_ONLY, pos, ch.size());
+            return true;
+        }
+    }
+
+    /**
+     * Stream writing a preallocated file through successive mapped regions
+     */
+    private static class MappedOutputStream extends OutputStream {
+
+        FileChannel ch; // the file
+        long size; // the size of the file
+        long pos; // the position of the current region
+        ByteBuffer region; // the current region
+
+        /**
+         * Initializes a stream writing the given file from the start
+         *
+         * @param ch   the file
+         * @param size the exact number of bytes that will be written
+         */
+        MappedOutputStream(FileChannel ch, long size) {
+            this.ch = ch;
+            this.size = size;
+            this.region = ByteBuffer.allocate(0);
+        }
+
+        /**
+         * Writes a byte
+         *
+         * @param b the byte to write
+         * @throws IOException if mapping fails or the file is full
+         */
+        public void write(int b) throws IOException {
+            nextRegion();
+            region.put((byte) b);
+        }
+
+        /**
+         * Writes the given bytes
+         *
+         * @param b   the source array
+         * @param off the first index to write
+         * @param len the number of bytes to write
+         * @throws IOException if mapping fails or the file is full
+         */
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                nextRegion();
+                int n = Math.min(len, region.remaining());
+                region.put(b, off, n);
+                off += n;
+                len -= n;
+            }
+        }
+
+        /**
+         * Helper method that maps the next region once the current one is
+         * full
+         *
+         * @throws IOException if mapping fails or the file is full
+         */
+        private void nextRegion() throws IOException {
+            if (region.hasRemaining()) {return;}
+            pos += region.capacity();
+            if (pos >= size) {throw new EOFException();}
+            region = map(ch, FileChannel.MapMode.READ_WRITE, pos, size);
+        }
+    }
+
+}
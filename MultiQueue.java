@@ -0,0 +1,234 @@
+/*
+ * Name: Xiaotong Zuo
+ * PID:  A15445495
+ */
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrent, relaxed max priority queue made of many MyPriorityQueue shards,
+ * each behind its own lock. offer adds to a random shard, and poll removes
+ * the larger head of two random shards. Threads rarely wait for a lock: a
+ * thread that finds a shard busy pauses briefly and tries other shards
+ * instead, and only waits for a lock after MAX_TRIES busy shards. With a few
+ * shards per thread, contention stays low and throughput scales with cores,
+ * but poll only returns one of the largest elements, not always the largest.
+ *
+ * In strict mode poll locks every shard and returns the largest element, for
+ * callers that need exact order.
+ *
+ * @param <T> Generic type
+ */
+public class MultiQueue<T extends Comparable<? super T>> {
+    // default number of shards per available processor
+    private static final int SHARDS_PER_THREAD = 4;
+    // default initial capacity of a shard
+    private static final int SHARD_SIZE = 16;
+    // busy shards an operation tries before it waits for a lock
+    private static final int MAX_TRIES = 4;
+
+    private Shard<T>[] shards; // the shards
+    private boolean strict; // whether poll returns the largest element
+
+    /**
+     * A MyPriorityQueue with its lock and a copy of its head readable without
+     * the lock
+     *
+     * @param <T> Generic type
+     */
+    private static class Shard<T extends Comparable<? super T>> {
+
+        ReentrantLock lock = new ReentrantLock(); // guards queue
+        MyPriorityQueue<T> queue = new MyPriorityQueue<>(SHARD_SIZE); // the elements
+        volatile T head; // the head of queue, or null if empty
+        volatile int size; // the number of elements in queue
+    }
+
+    /**
+     * Initializes a relaxed queue with SHARDS_PER_THREAD shards per processor
+     */
+    public MultiQueue() {
+        this(SHARDS_PER_THREAD * Runtime.getRuntime().availableProcessors(), false);
+    }
+
+    /**
+     * Initializes a queue with a given number of shards
+     *
+     * @param numShards the number of shards
+     * @param strict    whether poll returns the largest element
+     * @throws IllegalArgumentException if numShards is less than one
+     */
+    @SuppressWarnings("unchecked")
+    public MultiQueue(int numShards, boolean strict) throws IllegalArgumentException {
+        if (numShards < 1) {throw new IllegalArgumentException();}
+        shards = (Shard<T>[]) new Shard[numShards];
+        for (int i = 0; i < numShards; i++) {shards[i] = new Shard<>();}
+        this.strict = strict;
+    }
+
+    /**
+     * Inserts an element into a random shard. The element received cannot
+     * be null.
+     *
+     * @param element Element to be inserted.
+     * @return returns true
+     * @throws NullPointerException if the element received is null.
+     */
+    public boolean offer(T element) throws NullPointerException {
+        if (element == null) {throw new NullPointerException();}
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int failures = 0;
+        while (true) {
+            Shard<T> shard = shards[random.nextInt(shards.length)];
+            if (!lock(shard, failures)) {
+                failures++;
+                continue;
+            }
+            try {
+                shard.queue.offer(element);
+                shard.head = shard.queue.peek();
+                shard.size++;
+                return true;
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Retrieves and removes the larger head of two random shards, or the
+     * largest element in strict mode. Returns null if the queue is empty.
+     *
+     * @return one of the largest elements, or null if the queue is empty.
+     */
+    public T poll() {
+        if (strict) {return pollStrict();}
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int failures = 0;
+        while (true) {
+            Shard<T> a = shards[random.nextInt(shards.length)];
+            Shard<T> b = shards[random.nextInt(shards.length)];
+            T headA = a.head;
+            T headB = b.head;
+            if (headA == null && headB == null) {
+                if (isEmpty()) {return null;}
+                continue;
+            }
+            Shard<T> shard = headB == null || (headA != null && headA.compareTo(headB) >= 0) ? a : b;
+            if (!lock(shard, failures)) {
+                failures++;
+                continue;
+            }
+            try {
+                T element = shard.queue.poll();
+                if (element == null) {continue;}
+                shard.head = shard.queue.peek();
+                shard.size--;
+                return element;
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Retrieves, but does not remove, the largest head of the shards, or
+     * returns null if this queue is empty. Without locking the shards, the
+     * result may be out of date by the time it is returned.
+     *
+     * @return the largest head, null if the queue is empty
+     */
+    public T peek() {
+        T best = null;
+        for (Shard<T> shard : shards) {
+            T head = shard.head;
+            if (head != null && (best == null || head.compareTo(best) > 0)) {best = head;}
+        }
+        return best;
+    }
+
+    /**
+     * Returns the number of elements. Without locking the shards, the result
+     * may be out of date by the time it is returned.
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        int size = 0;
+        for (Shard<T> shard : shards) {size += shard.size;}
+        return size;
+    }
+
+    /**
+     * Return true is the queue is empty, false otherwise
+     *
+     * @return whether every shard is empty
+     */
+    public boolean isEmpty() {
+        for (Shard<T> shard : shards) {
+            if (shard.head != null) {return false;}
+        }
+        return true;
+    }
+
+    /**
+     * Clears the contents of the queue
+     */
+    public void clear() {
+        for (Shard<T> shard : shards) {
+            shard.lock.lock();
+            try {
+                shard.queue.clear();
+                shard.head = null;
+                shard.size = 0;
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Helper method that locks a shard without waiting while fewer than
+     * MAX_TRIES attempts have failed, pausing briefly when it is busy, and
+     * waits for the lock after that.
+     *
+     * @param shard    the shard to lock
+     * @param failures the number of failed attempts so far
+     * @return whether the shard was locked
+     */
+    private static boolean lock(Shard<?> shard, int failures) {
+        if (failures >= MAX_TRIES) {
+            shard.lock.lock();
+            return true;
+        }
+        if (shard.lock.tryLock()) {return true;}
+        Thread.onSpinWait();
+        return false;
+    }
+
+    /**
+     * Helper method that locks every shard in order and removes the largest
+     * head.
+     *
+     * @return the largest element, or null if the queue is empty.
+     */
+    private T pollStrict() {
+        for (Shard<T> shard : shards) {shard.lock.lock();}
+        try {
+            Shard<T> best = null;
+            for (Shard<T> shard : shards) {
+                T head = shard.head;
+                if (head != null && (best == null || head.compareTo(best.head) > 0)) {best = shard;}
+            }
+            if (best == null) {return null;}
+            T element = best.queue.poll();
+            best.head = best.queue.peek();
+            best.size--;
+            return element;
+        } finally {
+            for (Shard<T> shard : shards) {shard.lock.unlock();}
+        }
+    }
+
+}
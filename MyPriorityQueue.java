@@ -9,7 +9,17 @@
  */
 public class MyPriorityQueue<T extends Comparable<? super T>> {
 
-    private dHeap<T> pQueue;
+    /**
+     * Heap implementations a queue can be backed by
+     */
+    public enum Backend {
+        // 5-ary dHeap in an array: compact and fast, meld re-adds elements
+        DHEAP,
+        // pairing heap of linked nodes: meld in O(1)
+        PAIRING
+    }
+
+    private dHeapInterface<T> pQueue;
 
     /**
      * Constructor that creates a new priority queue
@@ -17,7 +27,18 @@ public class MyPriorityQueue<T extends Comparable<? super T>> {
      * @param initialSize the given size
      */
     public MyPriorityQueue(int initialSize) {
-        pQueue = new dHeap<>(5,initialSize,true);
+        this(initialSize, Backend.DHEAP);
+    }
+
+    /**
+     * Constructor that creates a new priority queue with the given backend
+     *
+     * @param initialSize the given size, unused by the PAIRING backend
+     * @param backend     the heap implementation
+     */
+    public MyPriorityQueue(int initialSize, Backend backend) {
+        if (backend == Backend.PAIRING) {pQueue = new PairingHeap<>(true);}
+        else {pQueue = new dHeap<>(5,initialSize,true);}
     }
 
     /**
@@ -69,4 +90,36 @@ public class MyPriorityQueue<T extends Comparable<? super T>> {
         return pQueue.size()==0;
     }
 
+    /**
+     * Moves every element of the other queue into this one, leaving the other
+     * queue empty. This is O(1) when both queues use the PAIRING backend. When
+     * both use the DHEAP backend the arrays are joined: O(n + m) when the
+     * other queue holds at least as many elements, which are heapified, and
+     * O(m log n) otherwise, when each of its m elements bubbles up. Otherwise
+     * the other queue is drained: into a DHEAP backend in one bulk addAll,
+     * into a PAIRING backend one O(1) add at a time.
+     *
+     * @param other the queue to merge in
+     * @throws IllegalArgumentException if other is this queue
+     */
+    @SuppressWarnings("unchecked")
+    public void meld(MyPriorityQueue<T> other) throws IllegalArgumentException {
+        if (other == this) {throw new IllegalArgumentException();}
+        if (pQueue instanceof PairingHeap && other.pQueue instanceof PairingHeap) {
+            ((PairingHeap<T>) pQueue).meld((PairingHeap<T>) other.pQueue);
+            return;
+        }
+        if (pQueue instanceof dHeap && other.pQueue instanceof dHeap) {
+            ((dHeap<T>) pQueue).addAll((dHeap<T>) other.pQueue);
+            return;
+        }
+        T[] elements = (T[]) new Comparable[other.pQueue.size()];
+        for (int i = 0; i < elements.length; i++) {elements[i] = other.pQueue.remove();}
+        if (pQueue instanceof dHeap) {
+            ((dHeap<T>) pQueue).addAll(elements);
+        } else {
+            for (T element : elements) {pQueue.add(element);}
+        }
+    }
+
 }
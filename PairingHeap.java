@@ -0,0 +1,192 @@
+/*
+ * Name: Xiaotong Zuo
+ * PID:  A15445495
+ */
+
+import java.util.*;
+
+/**
+ * Class of pairing heaps. Nodes form a multiway tree stored as first child
+ * and next sibling links, with the root holding the max (or min). add and
+ * meld link two trees in O(1); remove merges the children of the root in two
+ * passes in O(log n) amortized time.
+ *
+ * @param <T> Generic type
+ */
+public class PairingHeap<T extends Comparable<? super T>> implements dHeapInterface<T> {
+
+    private Node<T> root; // the root of the tree, or null if empty
+    private int nelems; // number of elements
+    private boolean isMaxHeap; // boolean to indicate whether heap is max or min
+
+    /**
+     * A node of the tree
+     *
+     * @param <T> Generic type
+     */
+    private static class Node<T> {
+
+        T data; // the element
+        Node<T> child; // the first child
+        Node<T> sibling; // the next sibling
+
+        /**
+         * Initializes a node without children
+         *
+         * @param data the element
+         */
+        Node(T data) {
+            this.data = data;
+        }
+    }
+
+    /**
+     * Initializes an empty max heap
+     */
+    public PairingHeap() {
+        this(true);
+    }
+
+    /**
+     * Initializes an empty heap
+     *
+     * @param isMaxHeap indicates whether the heap should be max or min
+     */
+    public PairingHeap(boolean isMaxHeap) {
+        this.isMaxHeap = isMaxHeap;
+    }
+
+    /**
+     * Returns the number of elements stored in the heap.
+     *
+     * @return number of elements in the heap
+     */
+    @Override
+    public int size() {
+        return nelems;
+    }
+
+    /**
+     * Adds the given data to the heap.
+     *
+     * @param data to add
+     * @throws NullPointerException if data is null
+     */
+    @Override
+    public void add(T data) throws NullPointerException {
+        if (data == null) {throw new NullPointerException();}
+        Node<T> node = new Node<>(data);
+        root = root == null ? node : link(root, node);
+        nelems++;
+    }
+
+    /**
+     * Returns and removes the root element from the heap.
+     *
+     * @return the root element
+     * @throws NoSuchElementException if the heap is empty
+     */
+    @Override
+    public T remove() throws NoSuchElementException {
+        if (nelems == 0) {throw new NoSuchElementException();}
+        T toReturn = root.data;
+        root = mergePairs(root.child);
+        nelems--;
+        return toReturn;
+    }
+
+    /**
+     * Clear all elements in the heap.
+     */
+    @Override
+    public void clear() {
+        root = null;
+        nelems = 0;
+    }
+
+    /**
+     * Returns the root element from the heap.
+     *
+     * @return the root element
+     * @throws NoSuchElementException if the heap is empty
+     */
+    @Override
+    public T element() throws NoSuchElementException {
+        if (nelems == 0) {throw new NoSuchElementException();}
+        return root.data;
+    }
+
+    /**
+     * Moves every element of the other heap into this one in O(1). The other
+     * heap is left empty.
+     *
+     * @param other the heap to merge in
+     * @throws IllegalArgumentException if the heaps are ordered differently or
+     *                                  other is this heap
+     */
+    public void meld(PairingHeap<T> other) throws IllegalArgumentException {
+        if (other == this || other.isMaxHeap != isMaxHeap) {throw new IllegalArgumentException();}
+        if (other.root == null) {return;}
+        root = root == null ? other.root : link(root, other.root);
+        nelems += other.nelems;
+        other.clear();
+    }
+
+    /**
+     * Helper method that links two trees, making the root that belongs lower
+     * the first child of the other.
+     *
+     * @param a the root of the first tree, without siblings
+     * @param b the root of the second tree, without siblings
+     * @return the root of the linked tree
+     */
+    private Node<T> link(Node<T> a, Node<T> b) {
+        int cmp = b.data.compareTo(a.data);
+        if (isMaxHeap ? cmp > 0 : cmp < 0) {
+            Node<T> temp = a;
+            a = b;
+            b = temp;
+        }
+        b.sibling = a.child;
+        a.child = b;
+        return a;
+    }
+
+    /**
+     * Helper method that merges a list of sibling trees into one: first
+     * linking them in pairs left to right, then linking the pairs right to
+     * left. Both passes are loops, so long lists cannot overflow the stack.
+     *
+     * @param first the first tree of the list
+     * @return the root of the merged tree, or null if the list is empty
+     */
+    private Node<T> mergePairs(Node<T> first) {
+        // the pairs are pushed on a stack linked through sibling, so the
+        // second pass pops them right to left
+        Node<T> pairs = null;
+        while (first != null) {
+            Node<T> a = first;
+            Node<T> b = a.sibling;
+            if (b == null) {
+                a.sibling = pairs;
+                pairs = a;
+                break;
+            }
+            first = b.sibling;
+            a.sibling = null;
+            b.sibling = null;
+            Node<T> pair = link(a, b);
+            pair.sibling = pairs;
+            pairs = pair;
+        }
+        Node<T> merged = null;
+        while (pairs != null) {
+            Node<T> next = pairs.sibling;
+            pairs.sibling = null;
+            merged = merged == null ? pairs : link(merged, pairs);
+            pairs = next;
+        }
+        return merged;
+    }
+
+}
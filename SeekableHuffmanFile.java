@@ -0,0 +1,296 @@
+/*
+ * Name: Xiaotong Zuo
+ * PID: A15445495
+ */
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Seekable Huffman container. The input is coded in fixed-size blocks into a
+ * single bit stream, and an index maps the uncompressed offset of every block
+ * to the bit offset where its code starts and the id of the table coding it.
+ * Blocks with the same code lengths share one table. A reader only decodes
+ * the blocks covering the range it is asked for.
+ *
+ * File format: MAGIC, block size, the bit stream padded to a byte boundary,
+ * then the index: the number of tables and each table as a length-prefixed
+ * canonical header, the number of blocks, (uncompressed offset, bit offset,
+ * table id) per block, the total length and the total number of bits. A
+ * trailer holds the offset of the index and MAGIC again.
+ */
+public class SeekableHuffmanFile implements Closeable {
+    // default number of input bytes per block
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 16;
+    // marks the start and the end of a container
+    private static final int MAGIC = 0x48435331;
+    // number of bytes before the bit stream
+    private static final int HEADER_SIZE = 8;
+    // number of bytes of the trailer
+    private static final int TRAILER_SIZE = 12;
+
+    private FileChannel ch; // the container
+    private HCTree[] tables; // the trees coding the blocks
+    private long[] offsets; // uncompressed offset of each block
+    private long[] bitOffsets; // bit offset of each block, plus the total
+    private int[] tableIds; // table of each block
+    private long length; // total uncompressed length
+    private int cachedBlock = -1; // the block held in cache
+    private byte[] cache; // the bytes of the last decoded block
+
+    /**
+     * Compress a stream into a seekable container
+     *
+     * @param in        the input stream
+     * @param out       the output stream
+     * @param blockSize number of input bytes per block
+     * @throws IOException if reading or writing fails
+     * @throws IllegalArgumentException if blockSize is less than one
+     */
+    public static void write(InputStream in, OutputStream out, int blockSize)
+            throws IOException, IllegalArgumentException {
+        if (blockSize < 1) {throw new IllegalArgumentException();}
+        CountingOutputStream counted = new CountingOutputStream(new BufferedOutputStream(out));
+        DataOutputStream dataOut = new DataOutputStream(counted);
+        dataOut.writeInt(MAGIC);
+        dataOut.writeInt(blockSize);
+        BitOutputStream bitOut = new BitOutputStream(dataOut);
+
+        Map<ByteBuffer, Integer> tableIds = new HashMap<>();
+        List<byte[]> headers = new ArrayList<>();
+        List<long[]> index = new ArrayList<>();
+        long length = 0;
+        byte[] block;
+        while ((block = in.readNBytes(blockSize)).length > 0) {
+            HCTree tree = new HCTree();
+            tree.buildTree(FrequencyCounter.count(block), HCTree.DEFAULT_MAX_CODE_LEN);
+            ByteArrayOutputStream header = new ByteArrayOutputStream();
+            BitOutputStream headerOut = new BitOutputStream(header);
+            tree.writeCanonicalHeader(headerOut);
+            headerOut.flush();
+            byte[] headerBytes = header.toByteArray();
+            Integer id = tableIds.get(ByteBuffer.wrap(headerBytes));
+            if (id == null) {
+                id = headers.size();
+                headers.add(headerBytes);
+                tableIds.put(ByteBuffer.wrap(headerBytes), id);
+            }
+            index.add(new long[] {length, bitOut.getBitsWritten(), id});
+            for (byte b : block) {tree.encode(b, bitOut);}
+            length += block.length;
+        }
+        long dataBits = bitOut.getBitsWritten();
+        bitOut.flush();
+
+        long indexOffset = counted.getCount();
+        dataOut.writeInt(headers.size());
+        for (byte[] header : headers) {
+            dataOut.writeShort(header.length);
+            dataOut.write(header);
+        }
+        dataOut.writeInt(index.size());
+        for (long[] entry : index) {
+            dataOut.writeLong(entry[0]);
+            dataOut.writeLong(entry[1]);
+            dataOut.writeInt((int) entry[2]);
+        }
+        dataOut.writeLong(length);
+        dataOut.writeLong(dataBits);
+        dataOut.writeLong(indexOffset);
+        dataOut.writeInt(MAGIC);
+        dataOut.flush();
+    }
+
+    /**
+     * Open a container for reading. Only the index is read up front.
+     *
+     * @param path path of the container
+     * @throws IOException if the container is malformed or reading fails
+     */
+    public SeekableHuffmanFile(Path path) throws IOException {
+        ch = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer trailer = read(ch.size() - TRAILER_SIZE, TRAILER_SIZE);
+            long indexOffset = trailer.getLong();
+            if (trailer.getInt() != MAGIC) {throw new IOException("Not a seekable container");}
+            ByteBuffer index = read(indexOffset, (int) (ch.size() - TRAILER_SIZE - indexOffset));
+            tables = new HCTree[index.getInt()];
+            for (int i = 0; i < tables.length; i++) {
+                int headerLen = index.getShort() & 0xffff;
+                ByteBuffer header = index.slice().limit(headerLen);
+                index.position(index.position() + headerLen);
+                tables[i] = new HCTree();
+                tables[i].readCanonicalHeader(new BitInputStream(header));
+            }
+            int numBlocks = index.getInt();
+            offsets = new long[numBlocks];
+            bitOffsets = new long[numBlocks + 1];
+            tableIds = new int[numBlocks];
+            for (int i = 0; i < numBlocks; i++) {
+                offsets[i] = index.getLong();
+                bitOffsets[i] = index.getLong();
+                tableIds[i] = index.getInt();
+            }
+            length = index.getLong();
+            bitOffsets[numBlocks] = index.getLong();
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the uncompressed length of the container
+     *
+     * @return number of uncompressed bytes
+     */
+    public long length() {
+        return length;
+    }
+
+    /**
+     * Read a range of the uncompressed data, decoding only the blocks that
+     * cover it. The last decoded block is kept, so nearby reads are cheap.
+     *
+     * @param pos the uncompressed offset of the first byte
+     * @param dst the array receiving the bytes
+     * @param off the first index to fill
+     * @param len the maximum number of bytes to read
+     * @return the number of bytes read, or -1 if pos is at or past the end
+     * @throws IOException if the container is malformed or reading fails
+     * @throws IndexOutOfBoundsException if pos is negative
+     */
+    public int read(long pos, byte[] dst, int off, int len) throws IOException {
+        if (pos < 0) {throw new IndexOutOfBoundsException();}
+        if (pos >= length) {return -1;}
+        len = (int) Math.min(len, length - pos);
+        int done = 0;
+        while (done < len) {
+            int b = blockOf(pos + done);
+            byte[] block = decodeBlock(b);
+            int from = (int) (pos + done - offsets[b]);
+            int n = Math.min(len - done, block.length - from);
+            System.arraycopy(block, from, dst, off + done, n);
+            done += n;
+        }
+        return len;
+    }
+
+    /**
+     * Close the container
+     *
+     * @throws IOException if closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        ch.close();
+    }
+
+    /**
+     * Helper method that finds the block holding an uncompressed offset
+     *
+     * @param pos the uncompressed offset
+     * @return the index of the block
+     */
+    private int blockOf(long pos) {
+        int b = Arrays.binarySearch(offsets, pos);
+        return b >= 0 ? b : -b - 2;
+    }
+
+    /**
+     * Helper method that decodes a block, or returns it from the cache
+     *
+     * @param b the index of the block
+     * @return the bytes of the block
+     * @throws IOException if the container is malformed or reading fails
+     */
+    private byte[] decodeBlock(int b) throws IOException {
+        if (b == cachedBlock) {return cache;}
+        long blockEnd = b + 1 < offsets.length ? offsets[b + 1] : length;
+        byte[] block = new byte[(int) (blockEnd - offsets[b])];
+        long firstByte = bitOffsets[b] / 8;
+        long lastByte = (bitOffsets[b + 1] + 7) / 8;
+        ByteBuffer bytes = read(HEADER_SIZE + firstByte, (int) (lastByte - firstByte));
+        BitInputStream in = new BitInputStream(bytes);
+        in.skipBits((int) (bitOffsets[b] % 8));
+        HCTree tree = tables[tableIds[b]];
+        for (int i = 0; i < block.length; i++) {block[i] = tree.decode(in);}
+        cachedBlock = b;
+        cache = block;
+        return block;
+    }
+
+    /**
+     * Helper method that reads a range of the container
+     *
+     * @param offset the first byte of the range
+     * @param len    the number of bytes in the range
+     * @return a buffer holding the range
+     * @throws IOException if the container is shorter than the range
+     */
+    private ByteBuffer read(long offset, int len) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(len);
+        while (buf.hasRemaining()) {
+            if (ch.read(buf, offset + buf.position()) < 0) {throw new EOFException();}
+        }
+        buf.flip();
+        return buf;
+    }
+
+    /**
+     * Stream counting the bytes written through it
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        long count; // number of bytes written
+
+        /**
+         * Initializes a stream writing to the given stream
+         *
+         * @param out the underlying stream
+         */
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        /**
+         * Writes a byte
+         *
+         * @param b the byte to write
+         * @throws IOException if writing fails
+         */
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        /**
+         * Writes the given bytes
+         *
+         * @param b   the source array
+         * @param off the first index to write
+         * @param len the number of bytes to write
+         * @throws IOException if writing fails
+         */
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        /**
+         * Returns the number of bytes written
+         *
+         * @return number of bytes written
+         */
+        long getCount() {
+            return count;
+        }
+    }
+
+}
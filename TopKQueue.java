@@ -0,0 +1,106 @@
+/*
+ * Name: Xiaotong Zuo
+ * PID:  A15445495
+ */
+
+import java.util.*;
+
+/**
+ * Bounded priority queue keeping the K largest elements offered. The elements
+ * are held in a min dHeap, so its root is the K-th largest element so far. An
+ * element that is not larger than the root is rejected with one comparison;
+ * a larger one replaces the root in place. Memory is O(K) however many
+ * elements are offered.
+ *
+ * @param <T> Generic type
+ */
+public class TopKQueue<T extends Comparable<? super T>> {
+    // branching factor of the heap, like MyPriorityQueue
+    private static final int D = 5;
+
+    private dHeap<T> pQueue; // min heap of the K largest elements
+    private int k; // the number of elements kept
+
+    /**
+     * Constructor that creates a queue keeping the k largest elements
+     *
+     * @param k the number of elements kept
+     * @throws IllegalArgumentException if k is less than one
+     */
+    public TopKQueue(int k) throws IllegalArgumentException {
+        if (k < 1) {throw new IllegalArgumentException();}
+        this.k = k;
+        pQueue = new dHeap<>(D, Math.min(k, 1 << 16), false);
+    }
+
+    /**
+     * Offers an element. It is kept if fewer than K elements are held or it is
+     * larger than the smallest element held, which is then dropped.
+     *
+     * @param element Element to be offered.
+     * @return true if the element is kept
+     * @throws NullPointerException if the element received is null.
+     */
+    public boolean offer(T element) throws NullPointerException {
+        if (element == null) {throw new NullPointerException();}
+        if (pQueue.size() < k) {
+            pQueue.add(element);
+            return true;
+        }
+        if (element.compareTo(pQueue.element()) <= 0) {return false;}
+        pQueue.replace(element);
+        return true;
+    }
+
+    /**
+     * Retrieves, but does not remove, the smallest element held, which is the
+     * K-th largest once K elements were offered, or returns null if this
+     * queue is empty.
+     *
+     * @return the smallest element held, null if the queue is empty
+     */
+    public T peek() {
+        if (pQueue.size() == 0) {return null;}
+        return pQueue.element();
+    }
+
+    /**
+     * Returns the number of elements held, at most K
+     *
+     * @return number of elements held
+     */
+    public int size() {
+        return pQueue.size();
+    }
+
+    /**
+     * Return true is the queue is empty, false otherwise
+     *
+     * @return whether no element is held
+     */
+    public boolean isEmpty() {
+        return pQueue.size() == 0;
+    }
+
+    /**
+     * Clears the contents of the queue
+     */
+    public void clear() {
+        pQueue.clear();
+    }
+
+    /**
+     * Removes every element held and returns them largest first
+     *
+     * @return the elements held, largest first
+     */
+    public List<T> drainSorted() {
+        @SuppressWarnings("unchecked")
+        T[] sorted = pQueue.drainSorted((T[]) new Comparable[pQueue.size()]);
+        // the min heap yields the smallest first, so reverse it
+        List<T> list = Arrays.asList(sorted);
+        Collections.reverse(list);
+        return list;
+    }
+
+}
@@ -0,0 +1,283 @@
+/*
+ * Name: Xiaotong Zuo
+ * PID: A15445495
+ */
+
+import java.io.*;
+import java.util.Arrays;
+
+/**
+ * Huffman code over a wide alphabet of up to 65536 int symbols, such as
+ * tokenized fields or small delta-encoded integers. Only the symbols that
+ * occur are stored: their codes live in a small open-addressing hash table
+ * for encoding, and decoding uses the same HCDecodeTable as HCTree. Codes are
+ * canonical and length-limited.
+ */
+public class WideHCTree {
+    // the largest alphabet supported
+    public static final int MAX_ALPHABET = 1 << 16;
+    // number of bits holding a symbol
+    private static final int SYMBOL_BITS = 16;
+    // number of bits holding the number of symbols in a header
+    private static final int COUNT_BITS = 17;
+    // number of bits holding a code length in a header
+    private static final int LEN_BITS = 6;
+    // marks an empty slot of the hash table
+    private static final int EMPTY = -1;
+
+    private int alphabetSize; // number of symbols of the alphabet
+    private int[] symbols = new int[0]; // the symbols that occur, ascending
+    private long[] codes = new long[0]; // the code of each symbol
+    private byte[] lens = new byte[0]; // the code length of each symbol
+    private int nelems; // number of symbols that occur
+    private int singleSymbol = -1; // the only symbol, if just one occurs
+    private int[] slotKeys = new int[0]; // hash table keys: symbols
+    private long[] slotCodes = new long[0]; // hash table values: code << 6 | len
+    private HCDecodeTable decodeTable; // the lookup table used for decoding
+
+    /**
+     * Initializes an empty code over the given alphabet
+     *
+     * @param alphabetSize number of symbols of the alphabet
+     * @throws IllegalArgumentException if alphabetSize is out of range
+     */
+    public WideHCTree(int alphabetSize) throws IllegalArgumentException {
+        if (alphabetSize < 1 || alphabetSize > MAX_ALPHABET) {throw new IllegalArgumentException();}
+        this.alphabetSize = alphabetSize;
+    }
+
+    /**
+     * Build the code for the given frequencies, with codes no longer than the
+     * given limit
+     *
+     * @param freq          frequency of each symbol, at most alphabetSize long
+     * @param maxCodeLength the longest code allowed
+     * @throws IllegalArgumentException if freq is longer than the alphabet or
+     *                                  maxCodeLength is out of range or too small
+     */
+    public void buildTree(int[] freq, int maxCodeLength) throws IllegalArgumentException {
+        if (freq.length > alphabetSize || maxCodeLength < 1
+                || maxCodeLength > HCDecodeTable.MAX_CODE_LEN) {
+            throw new IllegalArgumentException();
+        }
+        byte[] allLens = HCTree.limitedCodeLengths(freq, maxCodeLength);
+        int count = 0;
+        for (int i = 0; i < freq.length; i++) {
+            if (freq[i] != 0) {count++;}
+        }
+        symbols = new int[count];
+        lens = new byte[count];
+        nelems = 0;
+        for (int i = 0; i < freq.length; i++) {
+            if (freq[i] == 0) {continue;}
+            symbols[nelems] = i;
+            lens[nelems++] = allLens[i];
+        }
+        setUp();
+    }
+
+    /**
+     * Returns the length of the code of the given symbol
+     *
+     * @param symbol the symbol to look up
+     * @return the code length in bits, 0 if the symbol is not in the code
+     */
+    public int getCodeLength(int symbol) {
+        long entry = find(symbol);
+        return entry < 0 ? 0 : (int) (entry & 0x3f);
+    }
+
+    /**
+     * Encode the given symbol and write it to the given stream
+     *
+     * @param symbol to encode
+     * @param out    output stream
+     * @throws IOException if writing fails
+     * @throws IllegalArgumentException if the symbol is not in the code
+     */
+    public void encode(int symbol, BitOutputStream out) throws IOException, IllegalArgumentException {
+        if (symbol == singleSymbol) {return;}
+        long entry = find(symbol);
+        if (entry < 0) {throw new IllegalArgumentException();}
+        int len = (int) (entry & 0x3f);
+        long code = entry >>> LEN_BITS;
+        if (len > 32) {
+            out.writeBits((int) (code >>> 32), len - 32);
+            len = 32;
+        }
+        out.writeBits((int) code, len);
+    }
+
+    /**
+     * Decode the next symbol of the given stream
+     *
+     * @param in input stream
+     * @return the symbol decoded
+     * @throws IOException if reading fails
+     */
+    public int decode(BitInputStream in) throws IOException {
+        int entry = lookup(in.peekWindow());
+        in.skipBits(HCDecodeTable.length(entry));
+        return HCDecodeTable.symbol(entry);
+    }
+
+    /**
+     * Decode the symbol at the start of the given window of bits
+     *
+     * @param window the next 64 bits of input, first bit in the sign bit
+     * @return a packed entry, read with HCDecodeTable.symbol() and
+     *         HCDecodeTable.length()
+     */
+    public int lookup(long window) {
+        if (singleSymbol >= 0) {return singleSymbol;}
+        return decodeTable.lookup(window);
+    }
+
+    /**
+     * Write the code lengths to the given stream. The header is the number of
+     * symbols (17 bits) and the longest code length (6 bits), then either the
+     * only symbol (16 bits), or for every symbol in ascending order its gap
+     * from the previous symbol in Elias gamma code and its length.
+     *
+     * @param out the output stream
+     * @throws IOException if writing fails
+     */
+    public void writeHeader(BitOutputStream out) throws IOException {
+        int maxLen = 0;
+        for (int i = 0; i < nelems; i++) {maxLen = Math.max(maxLen, lens[i]);}
+        out.writeBits(nelems, COUNT_BITS);
+        out.writeBits(maxLen, LEN_BITS);
+        if (singleSymbol >= 0) {
+            out.writeBits(singleSymbol, SYMBOL_BITS);
+            return;
+        }
+        int width = 32 - Integer.numberOfLeadingZeros(maxLen);
+        int prev = -1;
+        for (int i = 0; i < nelems; i++) {
+            writeGamma(out, symbols[i] - prev);
+            out.writeBits(lens[i], width);
+            prev = symbols[i];
+        }
+    }
+
+    /**
+     * Read a header written by writeHeader and set up the code from it
+     *
+     * @param in the input stream
+     * @throws IOException if reading fails or the header is malformed
+     */
+    public void readHeader(BitInputStream in) throws IOException {
+        int count = in.readBits(COUNT_BITS);
+        int maxLen = in.readBits(LEN_BITS);
+        if (count == 0 || count > alphabetSize || maxLen > HCDecodeTable.MAX_CODE_LEN) {
+            throw new IOException("Malformed header");
+        }
+        symbols = new int[count];
+        lens = new byte[count];
+        nelems = count;
+        if (count == 1) {
+            symbols[0] = in.readBits(SYMBOL_BITS);
+        } else {
+            int width = 32 - Integer.numberOfLeadingZeros(maxLen);
+            int prev = -1;
+            for (int i = 0; i < count; i++) {
+                symbols[i] = prev + readGamma(in);
+                lens[i] = (byte) in.readBits(width);
+                prev = symbols[i];
+            }
+        }
+        if (symbols[count - 1] >= alphabetSize) {throw new IOException("Malformed header");}
+        setUp();
+    }
+
+    /**
+     * Helper method that assigns canonical codes and builds the hash table and
+     * the decode table
+     */
+    private void setUp() {
+        singleSymbol = nelems == 1 ? symbols[0] : -1;
+        // count the codes of each length, then hand out consecutive codes per
+        // length in symbol order
+        int[] lenCount = new int[HCDecodeTable.MAX_CODE_LEN + 1];
+        for (int i = 0; i < nelems; i++) {lenCount[lens[i]]++;}
+        long[] nextCode = new long[HCDecodeTable.MAX_CODE_LEN + 1];
+        long code = 0;
+        lenCount[0] = 0;
+        for (int len = 1; len <= HCDecodeTable.MAX_CODE_LEN; len++) {
+            code = (code + lenCount[len - 1]) << 1;
+            nextCode[len] = code;
+        }
+        codes = new long[nelems];
+        for (int i = 0; i < nelems; i++) {
+            if (lens[i] > 0) {codes[i] = nextCode[lens[i]]++;}
+        }
+
+        int slots = Integer.highestOneBit(Math.max(1, nelems) * 2) * 2;
+        slotKeys = new int[slots];
+        slotCodes = new long[slots];
+        Arrays.fill(slotKeys, EMPTY);
+        for (int i = 0; i < nelems; i++) {
+            int slot = hash(symbols[i]) & (slots - 1);
+            while (slotKeys[slot] != EMPTY) {slot = (slot + 1) & (slots - 1);}
+            slotKeys[slot] = symbols[i];
+            slotCodes[slot] = (codes[i] << LEN_BITS) | lens[i];
+        }
+        decodeTable = new HCDecodeTable(symbols, codes, lens, nelems);
+    }
+
+    /**
+     * Helper method that looks a symbol up in the hash table
+     *
+     * @param symbol the symbol
+     * @return code << 6 | length, or -1 if the symbol is not in the code
+     */
+    private long find(int symbol) {
+        int mask = slotKeys.length - 1;
+        if (mask < 0) {return -1;}
+        int slot = hash(symbol) & mask;
+        while (slotKeys[slot] != EMPTY) {
+            if (slotKeys[slot] == symbol) {return slotCodes[slot];}
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Helper method that spreads the bits of a symbol for the hash table
+     *
+     * @param symbol the symbol
+     * @return the hash
+     */
+    private static int hash(int symbol) {
+        return symbol * 0x9E3779B1 >>> 16;
+    }
+
+    /**
+     * Helper method that writes a positive int in Elias gamma code
+     *
+     * @param out   the output stream
+     * @param value the int, at least one
+     * @throws IOException if writing fails
+     */
+    private static void writeGamma(BitOutputStream out, int value) throws IOException {
+        int bits = 32 - Integer.numberOfLeadingZeros(value);
+        out.writeBits(0, bits - 1);
+        out.writeBits(value, bits);
+    }
+
+    /**
+     * Helper method that reads an int written by writeGamma
+     *
+     * @param in the input stream
+     * @return the int
+     * @throws IOException if reading fails or the code is malformed
+     */
+    private static int readGamma(BitInputStream in) throws IOException {
+        int zeros = 0;
+        while (in.readBit() == 0) {
+            if (++zeros > SYMBOL_BITS) {throw new IOException("Malformed header");}
+        }
+        return (1 << zeros) | in.readBits(zeros);
+    }
+
+}
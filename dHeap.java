@@ -59,6 +59,22 @@ public class dHeap<T extends Comparable<? super T>> implements dHeapInterface<T>
         this.isMaxHeap = isMaxHeap;
     }
 
+    /**
+     * Initializes a d-ary heap holding the given elements. The heap is built
+     * bottom-up in O(n) instead of adding the elements one at a time.
+     *
+     * @param d         The number of child nodes each node in the heap should have.
+     * @param elements  The elements to start with.
+     * @param isMaxHeap indicates whether the heap should be max or min
+     * @throws IllegalArgumentException if d is less than one.
+     * @throws NullPointerException if an element is null
+     */
+    public dHeap(int d, Collection<? extends T> elements, boolean isMaxHeap)
+            throws IllegalArgumentException, NullPointerException {
+        this(d, Math.max(1, elements.size()), isMaxHeap);
+        addAll(elements);
+    }
+
     /**
      * Returns the number of elements stored in the heap.
      *
@@ -84,6 +100,52 @@ public class dHeap<T extends Comparable<? super T>> implements dHeapInterface<T>
         nelems++;
     }
 
+    /**
+     * Adds all the given elements to the heap. The array grows at most once,
+     * and when the elements are at least as many as the heap already holds,
+     * the heap is rebuilt bottom-up in O(n) instead of adding them one at a
+     * time.
+     *
+     * @param elements to add
+     * @throws NullPointerException if an element is null
+     */
+    @SuppressWarnings("unchecked")
+    public void addAll(Collection<? extends T> elements) throws NullPointerException {
+        addAll((T[]) elements.toArray(new Comparable[0]));
+    }
+
+    /**
+     * Adds all the given elements to the heap. The array grows at most once,
+     * and when the elements are at least as many as the heap already holds,
+     * the heap is rebuilt bottom-up in O(n) instead of adding them one at a
+     * time.
+     *
+     * @param elements to add
+     * @throws NullPointerException if an element is null
+     */
+    public void addAll(T[] elements) throws NullPointerException {
+        for (T element : elements) {
+            if (element == null) {throw new NullPointerException();}
+        }
+        append(elements, elements.length);
+    }
+
+    /**
+     * Moves every element of the other heap into this one, leaving the other
+     * heap empty. Its array is copied as is, without removing the elements
+     * in order: O(n + m) when the other heap is at least as large and the
+     * heap is rebuilt, O(m log n) when its m elements bubble up instead.
+     *
+     * @param other the heap to merge in
+     * @throws IllegalArgumentException if other is this heap
+     */
+    public void addAll(dHeap<? extends T> other) throws IllegalArgumentException {
+        if (other == this) {throw new IllegalArgumentException();}
+        append(other.heap, other.nelems);
+        Arrays.fill(other.heap, 0, other.nelems, null);
+        other.nelems = 0;
+    }
+
     /**
      * Returns and removes the root element from the heap.
      *
@@ -95,11 +157,72 @@ public class dHeap<T extends Comparable<? super T>> implements dHeapInterface<T>
         if (nelems == 0) {throw new NoSuchElementException();}
         T toReturn = heap[0];
         heap[0] = heap[nelems-1];
+        heap[nelems-1] = null;
         nelems--;
+        if (nelems > 0) {trickleDown(0);}
+        return toReturn;
+    }
+
+    /**
+     * Replaces the root element with the given data and returns the old root.
+     * This is one trickle down instead of a remove followed by an add.
+     *
+     * @param data the new element
+     * @return the old root element
+     * @throws NullPointerException if data is null
+     * @throws NoSuchElementException if the heap is empty
+     */
+    public T replace(T data) throws NullPointerException, NoSuchElementException {
+        if (data == null) {throw new NullPointerException();}
+        if (nelems == 0) {throw new NoSuchElementException();}
+        T toReturn = heap[0];
+        heap[0] = data;
         trickleDown(0);
         return toReturn;
     }
 
+    /**
+     * Removes every element into an array in the order remove() would return
+     * them, root first. The heap array is heapsorted in place, so no element
+     * is trickled down through the full remove() path.
+     *
+     * @param dst the array to fill, or a smaller one to allocate a new array
+     *            of the same type
+     * @return dst, or the new array if dst was too small
+     */
+    public T[] drainSorted(T[] dst) {
+        if (dst.length < nelems) {dst = Arrays.copyOf(dst, nelems);}
+        int n = nelems;
+        sortHeap(heap, d, n, isMaxHeap);
+        // the root of each round went to the back, so read back to front
+        for (int i = 0; i < n; i++) {
+            dst[i] = heap[n - 1 - i];
+            heap[n - 1 - i] = null;
+        }
+        nelems = 0;
+        return dst;
+    }
+
+    /**
+     * Sorts an array in ascending order with an in-place d-ary heapsort.
+     *
+     * @param a   the array to sort
+     * @param d   the branching factor of the heap
+     * @param <T> Generic type
+     * @throws IllegalArgumentException if d is less than one.
+     * @throws NullPointerException if an element is null
+     */
+    public static <T extends Comparable<? super T>> void sort(T[] a, int d)
+            throws IllegalArgumentException, NullPointerException {
+        if (d < 1) {throw new IllegalArgumentException();}
+        for (T element : a) {
+            if (element == null) {throw new NullPointerException();}
+        }
+        int n = a.length;
+        for (int i = (n - 2) / d; i >= 0 && n > 1; i--) {siftDown(a, d, n, i, a[i], true);}
+        sortHeap(a, d, n, true);
+    }
+
     /**
      * Clear all elements in the heap.
      */
@@ -115,65 +238,163 @@ public class dHeap<T extends Comparable<? super T>> implements dHeapInterface<T>
      * @return the root element
      * @throws NoSuchElementException if the heap is empty
      */
+    @Override
     public T element() throws NoSuchElementException {
         if (nelems == 0) {throw new NoSuchElementException();}
         return heap[0];
     }
 
     /**
-     * Helper method for trickling elements down.
+     * Helper method that appends elements to the heap array, growing it at
+     * most once, and restores the heap order: bottom-up when the elements are
+     * at least as many as the heap already holds, one bubble up each
+     * otherwise.
+     *
+     * @param elements the array holding the elements, none of them null
+     * @param count    the number of elements at the front of the array
+     */
+    private void append(Object[] elements, int count) {
+        if (nelems + count > heap.length) {
+            heap = Arrays.copyOf(heap, Math.max(nelems + count, heap.length * 2));
+        }
+        System.arraycopy(elements, 0, heap, nelems, count);
+        if (count >= nelems) {
+            nelems += count;
+            heapify();
+        } else {
+            for (int i = 0; i < count; i++) {
+                bubbleUp(nelems);
+                nelems++;
+            }
+        }
+    }
+
+    /**
+     * Helper method for trickling elements down. The element is lifted out,
+     * larger (smaller) children move up into the hole, and the element is
+     * written once where it fits.
      *
      * @param index to start
      */
     private void trickleDown(int index) {
-        int childIndex = d * index + 1;
-        T value = heap[index];
-
-        while (childIndex < nelems) {
-            // Find the max among the node and all the node's children
-            T maxMinValue = value;
-            int maxMinIndex = -1;
-            for (int i = 0; i < d && i + childIndex < nelems; i++) {
-                if ((isMaxHeap & heap[i + childIndex].compareTo(maxMinValue)>0)||
-                        (!isMaxHeap & heap[i + childIndex].compareTo(maxMinValue)<0)) {
-                    maxMinValue = heap[i + childIndex];
-                    maxMinIndex = i + childIndex;
-                }
-            }
+        siftDown(heap, d, nelems, index, heap[index], isMaxHeap);
+    }
 
-            if (maxMinValue == value) {
-                return;
-            }
-            else {
-                T temp = heap[index];
-                heap[index] = heap[maxMinIndex];
-                heap[maxMinIndex] = temp;
-                index = maxMinIndex;
-                childIndex = d * index + 1;
-            }
+    /**
+     * Helper method that restores the heap order of the whole array by
+     * trickling down every parent, last parent first (Floyd's method).
+     */
+    private void heapify() {
+        // parent(-1) is 0 for d > 2, and heap[0] may not exist
+        if (nelems <= 1) {return;}
+        for (int i = parent(nelems - 1); i >= 0; i--) {
+            trickleDown(i);
         }
     }
 
     /**
-     * Helper method for bubbling elements up.
+     * Helper method for bubbling elements up. Parents move down into the
+     * hole until the element fits.
      *
      * @param index to start
      */
     private void bubbleUp(int index) {
+        T value = heap[index];
         while (index > 0) {
             int parentIndex = parent(index);
-            if (heap[index].compareTo(heap[parentIndex])==0 ||
-                    (heap[index].compareTo(heap[parentIndex])<0 == isMaxHeap))
-                return;
-            else {
-                T temp = heap[index];
-                heap[index] = heap[parentIndex];
-                heap[parentIndex] = temp;
-                index = parentIndex;
+            if (!before(value, heap[parentIndex], isMaxHeap)) {break;}
+            heap[index] = heap[parentIndex];
+            index = parentIndex;
+        }
+        heap[index] = value;
+    }
+
+    /**
+     * Helper method that sorts a heap in place: each round moves the root
+     * behind the heap, so a max heap ends up ascending and a min heap
+     * descending. The element displaced from the back is re-inserted bottom-up
+     * (Floyd): the hole left by the root is walked down to a leaf along the
+     * best children without comparing against the element, which usually
+     * belongs near the bottom, and the element is then bubbled up from the
+     * leaf. This takes about half the comparisons of a plain trickle down.
+     *
+     * @param a         the heap array
+     * @param d         the branching factor
+     * @param n         the number of elements of the heap
+     * @param isMaxHeap whether the heap is max or min
+     * @param <T>       Generic type
+     */
+    private static <T extends Comparable<? super T>> void sortHeap(T[] a, int d, int n,
+                                                                   boolean isMaxHeap) {
+        for (int end = n - 1; end > 0; end--) {
+            T value = a[end];
+            a[end] = a[0];
+            int hole = 0;
+            int childIndex = 1;
+            while (childIndex < end) {
+                int best = childIndex;
+                int last = Math.min(childIndex + d, end);
+                for (int i = childIndex + 1; i < last; i++) {
+                    if (before(a[i], a[best], isMaxHeap)) {best = i;}
+                }
+                a[hole] = a[best];
+                hole = best;
+                childIndex = d * hole + 1;
             }
+            while (hole > 0) {
+                int parentIndex = (hole - 1) / d;
+                if (!before(value, a[parentIndex], isMaxHeap)) {break;}
+                a[hole] = a[parentIndex];
+                hole = parentIndex;
+            }
+            a[hole] = value;
         }
     }
 
+    /**
+     * Helper method that places an element into a hole of a heap, moving the
+     * larger (smaller) child up into the hole until the element fits.
+     *
+     * @param a         the heap array
+     * @param d         the branching factor
+     * @param n         the number of elements of the heap
+     * @param index     the hole
+     * @param value     the element to place
+     * @param isMaxHeap whether the heap is max or min
+     * @param <T>       Generic type
+     */
+    private static <T extends Comparable<? super T>> void siftDown(T[] a, int d, int n, int index,
+                                                                   T value, boolean isMaxHeap) {
+        int childIndex = d * index + 1;
+        while (childIndex < n) {
+            // Find the max (or min) among the node's children
+            int best = childIndex;
+            int last = Math.min(childIndex + d, n);
+            for (int i = childIndex + 1; i < last; i++) {
+                if (before(a[i], a[best], isMaxHeap)) {best = i;}
+            }
+            if (!before(a[best], value, isMaxHeap)) {break;}
+            a[index] = a[best];
+            index = best;
+            childIndex = d * index + 1;
+        }
+        a[index] = value;
+    }
+
+    /**
+     * Helper method that returns whether an element belongs above another.
+     *
+     * @param a         the first element
+     * @param b         the second element
+     * @param isMaxHeap whether the heap is max or min
+     * @param <T>       Generic type
+     * @return true if a is strictly larger in a max heap (smaller in a min heap)
+     */
+    private static <T extends Comparable<? super T>> boolean before(T a, T b, boolean isMaxHeap) {
+        int cmp = a.compareTo(b);
+        return isMaxHeap ? cmp > 0 : cmp < 0;
+    }
+
     /**
      * Helper method that doubles the heap array when it is full.
      */
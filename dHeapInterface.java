@@ -0,0 +1,48 @@
+/*
+ * Name: Xiaotong Zuo
+ * PID:  A15445495
+ */
+
+/**
+ * Interface of the heaps a MyPriorityQueue can be backed by
+ *
+ * @param <T> Generic type
+ */
+public interface dHeapInterface<T> {
+
+    /**
+     * Returns the number of elements stored in the heap.
+     *
+     * @return number of elements in the heap
+     */
+    int size();
+
+    /**
+     * Adds the given data to the heap.
+     *
+     * @param data to add
+     * @throws NullPointerException if data is null
+     */
+    void add(T data) throws NullPointerException;
+
+    /**
+     * Returns and removes the root element from the heap.
+     *
+     * @return the root element
+     * @throws java.util.NoSuchElementException if the heap is empty
+     */
+    T remove();
+
+    /**
+     * Clear all elements in the heap.
+     */
+    void clear();
+
+    /**
+     * Returns the root element from the heap.
+     *
+     * @return the root element
+     * @throws java.util.NoSuchElementException if the heap is empty
+     */
+    T element();
+}